@@ -0,0 +1,159 @@
+package com.example;
+
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+
+public final class AllocationCheck {
+	private static final int PLAYERS = 500;
+	private static final int CHURN_TICKS = 20_000;
+	private static final int WARMUP_TICKS = 50_000;
+	private static final int MEASURED_TICKS = 10_000;
+	private static final long TICK_MILLIS = 50L;
+
+	private static long now = 1_000_000L;
+
+	private AllocationCheck() {
+	}
+
+	public static void main(String[] args) {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		if (!threads.isThreadAllocatedMemorySupported()) {
+			System.err.println("Thread allocation accounting is not supported by this JVM");
+			System.exit(2);
+		}
+		threads.setThreadAllocatedMemoryEnabled(true);
+
+		boolean passed = true;
+		String[] names = BenchmarkData.playerNames(PLAYERS, 23L);
+		passed &= check(threads, "event-driven roster", SimulationSettings.defaults(), new SteadyRoster(names));
+		passed &= check(threads, "full scan every tick", SimulationSettings.defaults().withEveryTickScans(), new SteadyRoster(names));
+		passed &= check(threads, "listed player set every tick", SimulationSettings.defaults().withEveryTickScans(), new ListedPlayerRoster(names));
+		if (!passed) {
+			System.exit(1);
+		}
+		System.out.println("Steady-state ticks are allocation-free");
+	}
+
+	private static boolean check(com.sun.management.ThreadMXBean threads, String scenario, SimulationSettings settings, ChurnRoster roster) {
+		JoinTrackingEngine engine = new JoinTrackingEngine(() -> now, () -> settings, new DiscardingOutput());
+		engine.connect("alloc.example.net", "LocalPlayer");
+		engine.tick(roster, true);
+		for (int i = 0; i < CHURN_TICKS; i++) {
+			now += TICK_MILLIS;
+			boolean changed = i % 10 == 0;
+			if (changed) {
+				roster.toggle((i / 10) % PLAYERS);
+			}
+			engine.tick(roster, changed);
+		}
+		runTicks(engine, roster, WARMUP_TICKS);
+
+		long before = threads.getCurrentThreadAllocatedBytes();
+		runTicks(engine, roster, MEASURED_TICKS);
+		long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+		System.out.printf(Locale.ROOT, "%s: %d bytes over %d ticks with %d players%n", scenario, allocated, MEASURED_TICKS, PLAYERS);
+		if (allocated > 0L) {
+			System.err.printf(Locale.ROOT, "FAIL %s allocated %.1f bytes per steady-state tick%n", scenario, (double) allocated / MEASURED_TICKS);
+			return false;
+		}
+		return true;
+	}
+
+	private static void runTicks(JoinTrackingEngine engine, ChurnRoster roster, int ticks) {
+		for (int i = 0; i < ticks; i++) {
+			now += TICK_MILLIS;
+			engine.tick(roster, false);
+		}
+	}
+
+	private interface ChurnRoster extends JoinTrackingEngine.RosterSource {
+		void toggle(int player);
+	}
+
+	private static final class SteadyRoster implements ChurnRoster {
+		private final String[] names;
+		private final boolean[] online;
+
+		private SteadyRoster(String[] names) {
+			this.names = names;
+			this.online = new boolean[names.length];
+			Arrays.fill(online, true);
+		}
+
+		@Override
+		public void toggle(int player) {
+			online[player] = !online[player];
+		}
+
+		@Override
+		public void forEachPlayer(ObjIntConsumer<String> observer) {
+			for (int i = 0; i < names.length; i++) {
+				if (online[i]) {
+					observer.accept(names[i], i & 3);
+				}
+			}
+		}
+	}
+
+	// Mirrors JoinMessagesModClient.forEachListedPlayer over ClientPacketListener's ReferenceOpenHashSet of listed players;
+	// its forEach walks the key array directly, so the cached visitor keeps the every-tick scan free of iterators.
+	private static final class ListedPlayerRoster implements ChurnRoster {
+		private final ListedPlayer[] players;
+		private final ReferenceOpenHashSet<ListedPlayer> listed = new ReferenceOpenHashSet<>();
+		private final Consumer<ListedPlayer> visitor = this::visit;
+		private ObjIntConsumer<String> observer;
+
+		private ListedPlayerRoster(String[] names) {
+			this.players = new ListedPlayer[names.length];
+			for (int i = 0; i < names.length; i++) {
+				players[i] = new ListedPlayer(names[i], i & 3);
+				listed.add(players[i]);
+			}
+		}
+
+		@Override
+		public void toggle(int player) {
+			if (!listed.remove(players[player])) {
+				listed.add(players[player]);
+			}
+		}
+
+		@Override
+		public void forEachPlayer(ObjIntConsumer<String> observer) {
+			this.observer = observer;
+			listed.forEach(visitor);
+			this.observer = null;
+		}
+
+		private void visit(ListedPlayer player) {
+			observer.accept(player.name, player.gameModeId);
+		}
+	}
+
+	private static final class ListedPlayer {
+		private final String name;
+		private final int gameModeId;
+
+		private ListedPlayer(String name, int gameModeId) {
+			this.name = name;
+			this.gameModeId = gameModeId;
+		}
+	}
+
+	private static final class DiscardingOutput implements JoinTrackingEngine.Output {
+		@Override
+		public void showMessage(String message) {
+		}
+
+		@Override
+		public boolean sendChat(String message) {
+			return false;
+		}
+	}
+}
@@ -0,0 +1,84 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+final class BenchmarkData {
+	private static final String NAME_ALPHABET = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789_";
+	private static final String[] CHAT_WORDS = {
+		"anyone", "got", "spare", "iron", "diamonds", "where", "is", "spawn", "lol", "gg", "trade", "me", "for",
+		"elytra", "base", "coords", "please", "thanks", "nice", "build", "server", "lag", "tps", "vote", "shop"
+	};
+	private static final String[] DECORATIONS = {"", "[VIP] ", "[Member] ", "\u00bb ", "\u2726 ", "<Admin> "};
+
+	private BenchmarkData() {
+	}
+
+	static String[] playerNames(int count, long seed) {
+		SplittableRandom random = new SplittableRandom(seed);
+		String[] names = new String[count];
+		for (int i = 0; i < count; i++) {
+			names[i] = randomName(random);
+		}
+		return names;
+	}
+
+	static String randomName(SplittableRandom random) {
+		int length = 3 + random.nextInt(14);
+		StringBuilder name = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			name.append(NAME_ALPHABET.charAt(random.nextInt(NAME_ALPHABET.length())));
+		}
+		return name.toString();
+	}
+
+	static String[] chatCorpus(int lines, String[] names, long seed) {
+		SplittableRandom random = new SplittableRandom(seed);
+		List<String> corpus = new ArrayList<>(lines);
+		for (int i = 0; i < lines; i++) {
+			String name = names[random.nextInt(names.length)];
+			int roll = random.nextInt(100);
+			if (roll < 8) {
+				corpus.add(joinLine(random, name));
+			} else if (roll < 16) {
+				corpus.add(leaveLine(random, name));
+			} else if (roll < 18) {
+				corpus.add("Welcome " + name + " to the server!");
+			} else {
+				corpus.add(chatLine(random, name));
+			}
+		}
+		return corpus.toArray(new String[0]);
+	}
+
+	private static String joinLine(SplittableRandom random, String name) {
+		return switch (random.nextInt(4)) {
+			case 0 -> name + " joined the game";
+			case 1 -> "[+] " + name;
+			case 2 -> DECORATIONS[random.nextInt(DECORATIONS.length)] + name + " joined the server";
+			default -> name + " connected";
+		};
+	}
+
+	private static String leaveLine(SplittableRandom random, String name) {
+		return switch (random.nextInt(4)) {
+			case 0 -> name + " left the game";
+			case 1 -> "[-] " + name;
+			case 2 -> DECORATIONS[random.nextInt(DECORATIONS.length)] + name + " disconnected";
+			default -> name + " quit";
+		};
+	}
+
+	private static String chatLine(SplittableRandom random, String name) {
+		StringBuilder line = new StringBuilder(DECORATIONS[random.nextInt(DECORATIONS.length)]).append('<').append(name).append("> ");
+		int words = 2 + random.nextInt(12);
+		for (int i = 0; i < words; i++) {
+			if (i > 0) {
+				line.append(' ');
+			}
+			line.append(CHAT_WORDS[random.nextInt(CHAT_WORDS.length)]);
+		}
+		return line.toString();
+	}
+}
@@ -0,0 +1,93 @@
+package com.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChatClassificationBenchmark {
+	private static final int CORPUS_LINES = 4096;
+	private static final long LINE_INTERVAL_MS = 50L;
+	private static final String SERVER_ADDRESS = "play.example.net";
+
+	@Param({"10", "100", "1000", "5000"})
+	public int players;
+
+	@Param({"default", "custom"})
+	public String pack;
+
+	private String[] corpus;
+	private AnnouncementPatternPack patternPack;
+	private JoinTrackingEngine engine;
+	private long now = 1_000_000L;
+	private int line;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		corpus = BenchmarkData.chatCorpus(CORPUS_LINES, BenchmarkData.playerNames(players, 3L), 4L);
+		List<PatternPack> patternPacks = "custom".equals(pack)
+			? List.of(new PatternPack(
+				"bench",
+				List.of(SERVER_ADDRESS),
+				List.of("^\\[\\+\\] (?<player>[A-Za-z0-9_]{3,16})$"),
+				List.of("^\\[-\\] (?<player>[A-Za-z0-9_]{3,16})$"),
+				List.of(),
+				List.of("[+]", "[-]"),
+				true
+			))
+			: List.of();
+		SimulationSettings settings = SimulationSettings.defaults().withPatternPacks(patternPacks);
+		engine = new JoinTrackingEngine(() -> now, () -> settings, new DiscardingOutput());
+		engine.connect(SERVER_ADDRESS, "LocalPlayer");
+		patternPack = engine.activePatternPack();
+	}
+
+	@Benchmark
+	public boolean prefilterOnly() {
+		String text = nextLine();
+		ChatAnnouncementClassifier classifier = patternPack.prefilterClassifier();
+		return classifier == null
+			|| classifier.advance(ChatAnnouncementClassifier.INITIAL_STATE, text) == ChatAnnouncementClassifier.KEYWORD_FOUND;
+	}
+
+	@Benchmark
+	public void classifyAndRecord() {
+		String text = nextLine();
+		now += LINE_INTERVAL_MS;
+		engine.onChatText(text);
+	}
+
+	private String nextLine() {
+		String text = corpus[line & (CORPUS_LINES - 1)];
+		line++;
+		return text;
+	}
+
+	private static final class DiscardingOutput implements JoinTrackingEngine.Output {
+		@Override
+		public void showMessage(String message) {
+		}
+
+		@Override
+		public boolean sendChat(String message) {
+			return false;
+		}
+	}
+}
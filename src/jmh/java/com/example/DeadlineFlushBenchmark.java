@@ -0,0 +1,94 @@
+package com.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeadlineFlushBenchmark {
+	private static final long TICK_MILLIS = 50L;
+	private static final long PENDING_DELAY_MILLIS = 1200L;
+
+	@Param({"10", "100", "1000", "5000"})
+	public int players;
+
+	private final DeadlineWheel wheel = new DeadlineWheel(TICK_MILLIS);
+	private final Map<String, PendingEvent> pending = new LinkedHashMap<>();
+	private final MessageCoalescer coalescer = new MessageCoalescer();
+	private String[] names;
+	private String[] joinMessages;
+	private PendingEvent[] events;
+	private long now;
+	private int delivered;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		names = BenchmarkData.playerNames(players, 5L);
+		joinMessages = new String[players];
+		events = new PendingEvent[players];
+		for (int i = 0; i < players; i++) {
+			joinMessages[i] = names[i] + " joined the game";
+			events[i] = new PendingEvent(names[i]);
+		}
+	}
+
+	@Benchmark
+	public int scheduleAndFlushBurst() {
+		for (PendingEvent event : events) {
+			pending.put(event.name, event);
+			wheel.schedule(event, now + PENDING_DELAY_MILLIS);
+		}
+		now += PENDING_DELAY_MILLIS;
+		wheel.advance(now);
+		return delivered;
+	}
+
+	@Benchmark
+	public int idleTick() {
+		now += TICK_MILLIS;
+		wheel.advance(now);
+		return wheel.size();
+	}
+
+	@Benchmark
+	public int coalescedBurst() {
+		for (int i = 0; i < names.length; i++) {
+			coalescer.add(joinMessages[i], " joined", names[i], now, PENDING_DELAY_MILLIS);
+		}
+		now += PENDING_DELAY_MILLIS;
+		coalescer.flush(now, Integer.MAX_VALUE, message -> delivered++);
+		return delivered;
+	}
+
+	private final class PendingEvent extends DeadlineWheel.Timeout {
+		private final String name;
+
+		private PendingEvent(String name) {
+			this.name = name;
+		}
+
+		@Override
+		void expire(long nowMillis) {
+			pending.remove(name);
+			delivered++;
+		}
+	}
+}
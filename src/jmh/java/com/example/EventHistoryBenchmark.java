@@ -0,0 +1,70 @@
+package com.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventHistoryBenchmark {
+	private static final int PAGE_SIZE = 10;
+	private static final EventHistory.Type[] TYPES = EventHistory.Type.values();
+
+	@Param({"10", "100", "1000", "5000"})
+	public int players;
+
+	private final EventHistory history = new EventHistory();
+	private String[] names;
+	private String[] normalizedNames;
+	private int playerId;
+	private int next;
+	private int visited;
+	private final EventHistory.Visitor visitor = (timestampMillis, playerName, type, oldGameMode, newGameMode) -> visited++;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		names = BenchmarkData.playerNames(players, 29L);
+		normalizedNames = new String[players];
+		for (int i = 0; i < players; i++) {
+			normalizedNames[i] = PlayerRoster.normalize(names[i]);
+		}
+		for (int i = 0; i < history.capacity(); i++) {
+			record();
+		}
+		playerId = history.find(names[players / 2]);
+	}
+
+	@Benchmark
+	public int record() {
+		int player = next % players;
+		history.record(next, names[player], normalizedNames[player], TYPES[next % TYPES.length], 0, 1);
+		next++;
+		return history.size();
+	}
+
+	@Benchmark
+	public int lastPage() {
+		int matches = history.query(EventHistory.NO_PLAYER, EventHistory.ALL_TYPES, 0, 0, visitor);
+		return history.query(EventHistory.NO_PLAYER, EventHistory.ALL_TYPES, matches - PAGE_SIZE, PAGE_SIZE, visitor);
+	}
+
+	@Benchmark
+	public int playerAndTypeFilter() {
+		return history.query(playerId, EventHistory.typeFilter("gamemode"), 0, PAGE_SIZE, visitor);
+	}
+}
@@ -0,0 +1,555 @@
+package com.example;
+
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.MutableComponent;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.function.ObjIntConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public final class JoinTrackingSimulation {
+	private static final long TICK_MILLIS = 50L;
+	private static final int SETTLE_TICKS = 200;
+	private static final int CLASSIFIER_LINES = 200_000;
+	private static final int PREFILTER_MESSAGES = 50_000;
+	private static final String SPLIT_TRANSLATION_KEY = "joinmessages.simulation.split";
+	private static final int HISTORY_PLAYERS = 10_000;
+	private static final Pattern JOIN_PATTERN = Pattern.compile("\\b([A-Za-z0-9_]{3,16})\\b\\s+(joined|connected)\\b", Pattern.CASE_INSENSITIVE);
+	private static final Pattern LEAVE_PATTERN = Pattern.compile("\\b([A-Za-z0-9_]{3,16})\\b\\s+(left|quit|disconnected)\\b", Pattern.CASE_INSENSITIVE);
+	private static final Pattern SERVER_WELCOME_PATTERN = Pattern.compile("^Welcome\\s+([A-Za-z0-9_]{3,16})\\s+to\\s+the\\s+server!$");
+	private static final String[] CLASSIFIER_TOKENS = {
+		"joined", "JOINED", "Connected", "left", "Left", "quit", "QUIT", "disconnected", "joinedx", "left_", "xquit",
+		"the game", "the server", "Welcome", "welcome", "to", "the", "server!", "[+]", "<", ">", ":", "!", ",", "-"
+	};
+	private static final String[] CLASSIFIER_SEPARATORS = {" ", " ", " ", "  ", "\t", "", "\n", ", "};
+
+	private final SimulatedServer server;
+	private final RecordingOutput output = new RecordingOutput();
+	private final JoinTrackingEngine engine;
+	private long now = 1_000_000L;
+
+	private JoinTrackingSimulation(int players, SimulationSettings settings) {
+		this(players, settings, null);
+	}
+
+	private JoinTrackingSimulation(int players, SimulationSettings settings, SessionTraceRecorder recorder) {
+		this.server = new SimulatedServer(BenchmarkData.playerNames(players, 7L));
+		this.engine = new JoinTrackingEngine(() -> now, () -> settings, output);
+		this.engine.recordTo(recorder);
+		this.engine.connect("sim.example.net", "LocalPlayer");
+		tick(true);
+	}
+
+	public static void main(String[] args) throws IOException {
+		int players = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+		List<String> failures = new ArrayList<>();
+
+		silentServerAnnouncesEveryChange(players, ticks, failures);
+		announcingServerIsSuppressed(players, ticks, failures);
+		joinStormIsCoalesced(players, failures);
+		chatThroughput(players, failures);
+		classifierMatchesRegexes(failures);
+		prefilterMatchesSplitComponents(failures);
+		traceReplayMatchesRecording(players, ticks, failures);
+		playerHistorySurvivesReopen(failures);
+		playerHistorySeparatesCollidingNames(failures);
+
+		if (!failures.isEmpty()) {
+			failures.forEach(failure -> System.err.println("FAIL " + failure));
+			System.exit(1);
+		}
+		System.out.println("All simulation checks passed");
+	}
+
+	private static void silentServerAnnouncesEveryChange(int players, int ticks, List<String> failures) {
+		JoinTrackingSimulation simulation = new JoinTrackingSimulation(players, SimulationSettings.defaults());
+		SplittableRandom random = new SplittableRandom(11L);
+		int expected = 0;
+		long started = System.nanoTime();
+		for (int i = 0; i < ticks; i++) {
+			if (random.nextInt(4) == 0) {
+				simulation.server.toggle(random.nextInt(players));
+				expected++;
+				simulation.tick(true);
+			} else {
+				simulation.tick(false);
+			}
+		}
+		simulation.settle();
+		report("silent server", ticks, started);
+		check(failures, "silent server announced " + simulation.output.messages + " of " + expected + " changes",
+			simulation.output.messages == expected);
+	}
+
+	private static void announcingServerIsSuppressed(int players, int ticks, List<String> failures) {
+		JoinTrackingSimulation simulation = new JoinTrackingSimulation(players, SimulationSettings.defaults());
+		SplittableRandom random = new SplittableRandom(13L);
+		long started = System.nanoTime();
+		for (int i = 0; i < ticks; i++) {
+			if (random.nextInt(4) == 0) {
+				int player = random.nextInt(players);
+				boolean joining = simulation.server.toggle(player);
+				String name = simulation.server.names[player];
+				boolean chatFirst = random.nextBoolean();
+				if (chatFirst) {
+					simulation.engine.onChatText(name + (joining ? " joined the game" : " left the game"));
+				}
+				simulation.tick(true);
+				if (!chatFirst) {
+					simulation.engine.onChatText(name + (joining ? " joined the game" : " left the game"));
+				}
+			} else {
+				simulation.tick(false);
+			}
+		}
+		simulation.settle();
+		report("announcing server", ticks, started);
+		check(failures, "announcing server leaked " + simulation.output.messages + " duplicate messages",
+			simulation.output.messages == 0);
+	}
+
+	private static void joinStormIsCoalesced(int players, List<String> failures) {
+		SimulationSettings settings = SimulationSettings.defaults().withCoalescing(1500, 4);
+		JoinTrackingSimulation simulation = new JoinTrackingSimulation(players, settings);
+		for (int i = 0; i < players; i++) {
+			simulation.server.toggle(i);
+		}
+		simulation.tick(true);
+		for (int i = 0; i < players; i++) {
+			simulation.server.toggle(i);
+		}
+		simulation.tick(true);
+		long settleStart = simulation.now;
+		simulation.settle();
+		double seconds = (simulation.now - settleStart) / 1000.0;
+		int maxExpected = (int) Math.ceil(seconds * settings.maxMessagesPerSecond()) + settings.maxMessagesPerSecond();
+		System.out.printf(Locale.ROOT, "join storm: %d players -> %d messages%n", players, simulation.output.messages);
+		check(failures, "join storm produced " + simulation.output.messages + " messages, limit " + maxExpected,
+			simulation.output.messages > 0 && simulation.output.messages <= maxExpected);
+	}
+
+	private static void chatThroughput(int players, List<String> failures) {
+		JoinTrackingSimulation simulation = new JoinTrackingSimulation(players, SimulationSettings.defaults().withAutoWelcome());
+		String[] corpus = BenchmarkData.chatCorpus(65536, simulation.server.names, 17L);
+		long started = System.nanoTime();
+		for (String line : corpus) {
+			simulation.engine.onChatText(line);
+			simulation.now += 1L;
+		}
+		double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+		System.out.printf(Locale.ROOT, "chat: %d lines in %.3fs (%.0f lines/s), %d auto-welcomes%n",
+			corpus.length, seconds, corpus.length / seconds, simulation.output.chats);
+		check(failures, "auto-welcome never fired", simulation.output.chats > 0);
+	}
+
+	private static void classifierMatchesRegexes(List<String> failures) {
+		SplittableRandom random = new SplittableRandom(29L);
+		ChatAnnouncementClassifier.Result result = new ChatAnnouncementClassifier.Result();
+		int announcements = 0;
+		int mismatches = 0;
+		String firstMismatch = null;
+		for (int i = 0; i < CLASSIFIER_LINES; i++) {
+			String line = classifierLine(random);
+			ChatAnnouncementClassifier.DEFAULT.classify(line, result);
+			String lowerCase = line.toLowerCase(Locale.ROOT);
+			boolean matches = result.joinNames().equals(regexNames(JOIN_PATTERN, line))
+				&& result.leaveNames().equals(regexNames(LEAVE_PATTERN, line))
+				&& (!result.joinNames().isEmpty() || result.joinPhrase() == containsJoinPhrase(lowerCase))
+				&& (!result.leaveNames().isEmpty() || result.leavePhrase() == containsLeavePhrase(lowerCase))
+				&& Objects.equals(result.welcomeName(), regexWelcome(line));
+			if (!result.joinNames().isEmpty() || !result.leaveNames().isEmpty() || result.welcomeName() != null) {
+				announcements++;
+			}
+			if (!matches) {
+				mismatches++;
+				if (firstMismatch == null) {
+					firstMismatch = line;
+				}
+			}
+		}
+		System.out.printf(Locale.ROOT, "classifier: %d randomized lines (%d announcements), %d regex mismatches%n",
+			CLASSIFIER_LINES, announcements, mismatches);
+		check(failures, "classifier disagreed with the reference regexes on " + mismatches + " lines, first: '" + firstMismatch + "'",
+			mismatches == 0);
+	}
+
+	private static void prefilterMatchesSplitComponents(List<String> failures) {
+		SplittableRandom random = new SplittableRandom(31L);
+		ChatPrefilter prefilter = new ChatPrefilter(ChatAnnouncementClassifier.DEFAULT);
+		int keywordMessages = 0;
+		int mismatches = 0;
+		String firstMismatch = null;
+		for (int i = 0; i < PREFILTER_MESSAGES; i++) {
+			String line = classifierLine(random);
+			Component message = splitComponent(line, random);
+			boolean hasKeyword = ChatAnnouncementClassifier.DEFAULT.advance(ChatAnnouncementClassifier.INITIAL_STATE, line)
+				== ChatAnnouncementClassifier.KEYWORD_FOUND;
+			boolean announces = !regexNames(JOIN_PATTERN, line).isEmpty() || !regexNames(LEAVE_PATTERN, line).isEmpty()
+				|| regexWelcome(line) != null;
+			boolean passed = prefilter.test(message) != ChatPrefilter.IRRELEVANT;
+			if (hasKeyword) {
+				keywordMessages++;
+			}
+			if (!message.getString().equals(line) || passed != hasKeyword || (announces && !passed)) {
+				mismatches++;
+				if (firstMismatch == null) {
+					firstMismatch = line;
+				}
+			}
+		}
+		System.out.printf(Locale.ROOT, "prefilter: %d split-component messages (%d with keywords), %d mismatches%n",
+			PREFILTER_MESSAGES, keywordMessages, mismatches);
+		check(failures, "prefilter disagreed with the flattened text on " + mismatches + " split messages, first: '" + firstMismatch + "'",
+			mismatches == 0);
+	}
+
+	private static Component splitComponent(String line, SplittableRandom random) {
+		List<String> pieces = new ArrayList<>();
+		int start = 0;
+		while (start < line.length()) {
+			int end = Math.min(line.length(), start + 1 + random.nextInt(6));
+			pieces.add(line.substring(start, end));
+			start = end;
+		}
+		MutableComponent root = Component.literal("");
+		int next = 0;
+		while (next < pieces.size()) {
+			int remaining = pieces.size() - next;
+			int shape = random.nextInt(4);
+			if (shape == 1 && remaining >= 3) {
+				Object argument = random.nextBoolean() ? pieces.get(next + 1) : Component.literal(pieces.get(next + 1));
+				root.append(Component.translatableWithFallback(SPLIT_TRANSLATION_KEY, pieces.get(next) + "%s" + pieces.get(next + 2), argument));
+				next += 3;
+			} else if (shape == 2 && remaining >= 2) {
+				root.append(Component.translatableWithFallback(SPLIT_TRANSLATION_KEY, "%2$s%1$s",
+					Component.literal(pieces.get(next + 1)), pieces.get(next)));
+				next += 2;
+			} else if (shape == 3 && remaining >= 2) {
+				MutableComponent argument = Component.literal(pieces.get(next));
+				argument.append(Component.literal(pieces.get(next + 1)));
+				root.append(Component.translatableWithFallback(SPLIT_TRANSLATION_KEY, "%s", argument));
+				next += 2;
+			} else {
+				root.append(Component.literal(pieces.get(next)));
+				next++;
+			}
+		}
+		return root;
+	}
+
+	private static String classifierLine(SplittableRandom random) {
+		if (random.nextInt(16) == 0) {
+			String separator = CLASSIFIER_SEPARATORS[random.nextInt(CLASSIFIER_SEPARATORS.length)];
+			return "Welcome" + separator + BenchmarkData.randomName(random) + " to" + separator + "the server!";
+		}
+		StringBuilder line = new StringBuilder();
+		if (random.nextInt(8) == 0) {
+			line.append(' ');
+		}
+		int tokens = 1 + random.nextInt(8);
+		for (int i = 0; i < tokens; i++) {
+			if (i > 0) {
+				line.append(CLASSIFIER_SEPARATORS[random.nextInt(CLASSIFIER_SEPARATORS.length)]);
+			}
+			if (random.nextInt(3) == 0) {
+				int length = 1 + random.nextInt(18);
+				for (int c = 0; c < length; c++) {
+					line.append(BenchmarkData.randomName(random).charAt(0));
+				}
+			} else {
+				line.append(CLASSIFIER_TOKENS[random.nextInt(CLASSIFIER_TOKENS.length)]);
+			}
+		}
+		if (random.nextInt(8) == 0) {
+			line.append(' ');
+		}
+		return line.toString();
+	}
+
+	private static List<String> regexNames(Pattern pattern, String line) {
+		List<String> names = new ArrayList<>();
+		Matcher matcher = pattern.matcher(line);
+		while (matcher.find()) {
+			names.add(matcher.group(1));
+		}
+		return names;
+	}
+
+	private static String regexWelcome(String line) {
+		Matcher matcher = SERVER_WELCOME_PATTERN.matcher(line.trim());
+		return matcher.matches() ? matcher.group(1) : null;
+	}
+
+	private static boolean containsJoinPhrase(String lowerCase) {
+		return lowerCase.contains(" joined the game") || lowerCase.contains(" joined the server") || lowerCase.contains(" connected");
+	}
+
+	private static boolean containsLeavePhrase(String lowerCase) {
+		return lowerCase.contains(" left the game") || lowerCase.contains(" left the server")
+			|| lowerCase.contains(" disconnected") || lowerCase.contains(" quit");
+	}
+
+	private static void traceReplayMatchesRecording(int players, int ticks, List<String> failures) throws IOException {
+		Path trace = Files.createTempFile("joinmessages-simulation", ".jmtrace");
+		try {
+			SimulationSettings settings = SimulationSettings.defaults().withAutoWelcome();
+			JoinTrackingSimulation simulation;
+			int expectedMisses = 0;
+			SessionTraceRecorder.open(trace).close();
+			try (SessionTraceRecorder recorder = SessionTraceRecorder.open(trace)) {
+				simulation = new JoinTrackingSimulation(players, settings, recorder);
+				SplittableRandom random = new SplittableRandom(19L);
+				for (int i = 0; i < ticks; i++) {
+					int roll = random.nextInt(8);
+					if (roll == 0) {
+						int player = random.nextInt(players);
+						boolean joining = simulation.server.toggle(player);
+						if (random.nextBoolean()) {
+							simulation.engine.onChatText(simulation.server.names[player] + (joining ? " joined the game" : " left the game"));
+						}
+						simulation.tick(true);
+					} else if (roll == 1) {
+						simulation.engine.onChatText("Welcome " + simulation.server.names[random.nextInt(players)] + "!");
+						simulation.tick(false);
+					} else if (roll == 2) {
+						if (random.nextBoolean()) {
+							simulation.engine.recordIncomingMessage(simulation.server.names[random.nextInt(players)] + " joined the game", false);
+							expectedMisses++;
+						} else {
+							simulation.engine.recordIncomingMessage("gg", false);
+						}
+						simulation.tick(false);
+					} else {
+						simulation.tick(false);
+					}
+				}
+				simulation.settle();
+				simulation.engine.disconnect();
+			}
+
+			RecordingOutput replayed = new RecordingOutput();
+			long started = System.nanoTime();
+			SessionTraceReplayer.Stats stats = SessionTraceReplayer.replay(trace, () -> settings, replayed);
+			double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+			System.out.printf(Locale.ROOT, "trace replay: %d bytes, %d ticks, %d messages, %.0fx real time%n",
+				Files.size(trace), stats.ticks(), stats.messages(), stats.sessionMillis() / 1000.0 / seconds);
+			check(failures, "trace replay found " + stats.prefilterMisses().size() + " of " + expectedMisses + " rejected announcements",
+				stats.prefilterMisses().size() == expectedMisses);
+			check(failures, "trace replay diverged from the recorded session",
+				replayed.messages == simulation.output.messages
+					&& replayed.chats == simulation.output.chats
+					&& replayed.digest == simulation.output.digest);
+		} finally {
+			Files.deleteIfExists(trace);
+		}
+	}
+
+	private static void playerHistorySurvivesReopen(List<String> failures) throws IOException {
+		Path directory = Files.createTempDirectory("joinmessages-history");
+		Path log = directory.resolve("players.log");
+		Path index = directory.resolve("players.idx");
+		Path snapshot = directory.resolve("players.idx.snapshot");
+		String[] names = new String[HISTORY_PLAYERS];
+		for (int i = 0; i < names.length; i++) {
+			names[i] = "Visitor" + i;
+		}
+		PlayerHistoryStore.Visit visit = new PlayerHistoryStore.Visit();
+		try {
+			long started = System.nanoTime();
+			try (PlayerHistoryStore store = PlayerHistoryStore.open(directory)) {
+				for (int i = 0; i < names.length; i++) {
+					store.visit(names[i], 1_000L + i, visit);
+				}
+				check(failures, "player history grew to " + store.size() + " of " + names.length + " players",
+					store.size() == names.length);
+			}
+			PlayerHistoryStore.awaitPendingWrites();
+			Files.copy(index, snapshot, StandardCopyOption.REPLACE_EXISTING);
+			try (PlayerHistoryStore store = PlayerHistoryStore.open(directory)) {
+				for (int i = 0; i < names.length; i += 2) {
+					store.depart(names[i], 50_000L + i);
+				}
+				store.seen(names[1], 60_000L);
+				store.visit(names[3], 70_000L, visit);
+			}
+			PlayerHistoryStore.awaitPendingWrites();
+			long logLength = Files.size(log);
+			System.out.printf(Locale.ROOT, "player history: %d players, %d log bytes in %.3fs%n",
+				names.length, logLength, (System.nanoTime() - started) / 1_000_000_000.0);
+			check(failures, "player history lost visits after reopening", historyMatches(directory, names, visit));
+
+			try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+				channel.write(ByteBuffer.wrap(new byte[] {PlayerHistoryStore.VISIT, 0, 0, 0}));
+			}
+			check(failures, "player history lost visits after a torn append", historyMatches(directory, names, visit));
+			check(failures, "player history kept " + (Files.size(log) - logLength) + " bytes of a torn append",
+				Files.size(log) == logLength);
+
+			Files.copy(snapshot, index, StandardCopyOption.REPLACE_EXISTING);
+			check(failures, "player history lost visits replaying the log tail", historyMatches(directory, names, visit));
+
+			try (FileChannel channel = FileChannel.open(index, StandardOpenOption.WRITE)) {
+				channel.write(ByteBuffer.allocate(Integer.BYTES), 0L);
+			}
+			check(failures, "player history lost visits rebuilding the index", historyMatches(directory, names, visit));
+		} finally {
+			Files.deleteIfExists(snapshot);
+			deleteHistory(directory);
+		}
+	}
+
+	private static boolean historyMatches(Path directory, String[] names, PlayerHistoryStore.Visit visit) throws IOException {
+		boolean matches;
+		try (PlayerHistoryStore store = PlayerHistoryStore.open(directory)) {
+			matches = historyMatches(store, names, visit);
+		}
+		PlayerHistoryStore.awaitPendingWrites();
+		return matches;
+	}
+
+	private static boolean historyMatches(PlayerHistoryStore store, String[] names, PlayerHistoryStore.Visit visit) {
+		if (store.size() != names.length) {
+			return false;
+		}
+		for (int i = 0; i < names.length; i++) {
+			long lastSeen = i == 1 ? 60_000L : i == 3 ? 70_000L : i % 2 == 0 ? 50_000L + i : 1_000L + i;
+			int visits = i == 3 ? 2 : 1;
+			if (!store.lookup(names[i], visit) || visit.firstSeenMillis() != 1_000L + i
+				|| visit.lastSeenMillis() != lastSeen || visit.visits() != visits) {
+				return false;
+			}
+		}
+		return !store.lookup("NeverSeen", visit);
+	}
+
+	private static void playerHistorySeparatesCollidingNames(List<String> failures) throws IOException {
+		Path directory = Files.createTempDirectory("joinmessages-history");
+		PlayerHistoryStore.NameHash collidingHash = (name, length) -> 42L;
+		String[] names = {"Alpha", "Bravo", "Charlie", "Delta"};
+		PlayerHistoryStore.Visit visit = new PlayerHistoryStore.Visit();
+		try {
+			try (PlayerHistoryStore store = PlayerHistoryStore.open(directory, collidingHash)) {
+				for (int i = 0; i < names.length; i++) {
+					check(failures, "colliding player history reported " + names[i] + " as known before the first visit",
+						!store.visit(names[i], 1_000L * (i + 1), visit));
+				}
+				store.visit(names[0], 10_000L, visit);
+				check(failures, "colliding player history merged " + names.length + " players into " + store.size(),
+					collidingHistoryMatches(store, names, visit));
+			}
+			PlayerHistoryStore.awaitPendingWrites();
+			try (FileChannel channel = FileChannel.open(directory.resolve("players.idx"), StandardOpenOption.WRITE)) {
+				channel.write(ByteBuffer.allocate(Integer.BYTES), 0L);
+			}
+			try (PlayerHistoryStore store = PlayerHistoryStore.open(directory, collidingHash)) {
+				check(failures, "colliding player history merged players rebuilding the index",
+					collidingHistoryMatches(store, names, visit));
+			}
+		} finally {
+			deleteHistory(directory);
+		}
+	}
+
+	private static boolean collidingHistoryMatches(PlayerHistoryStore store, String[] names, PlayerHistoryStore.Visit visit) {
+		if (store.size() != names.length) {
+			return false;
+		}
+		for (int i = 0; i < names.length; i++) {
+			long lastSeen = i == 0 ? 10_000L : 1_000L * (i + 1);
+			int visits = i == 0 ? 2 : 1;
+			if (!store.lookup(names[i], visit) || visit.firstSeenMillis() != 1_000L * (i + 1)
+				|| visit.lastSeenMillis() != lastSeen || visit.visits() != visits) {
+				return false;
+			}
+		}
+		return !store.lookup("Echo", visit);
+	}
+
+	private static void deleteHistory(Path directory) throws IOException {
+		PlayerHistoryStore.awaitPendingWrites();
+		Files.deleteIfExists(directory.resolve("players.idx"));
+		Files.deleteIfExists(directory.resolve("players.log"));
+		Files.deleteIfExists(directory);
+	}
+
+	private void tick(boolean rosterChanged) {
+		now += TICK_MILLIS;
+		engine.tick(server, rosterChanged);
+	}
+
+	private void settle() {
+		for (int i = 0; i < SETTLE_TICKS; i++) {
+			tick(false);
+		}
+	}
+
+	private static void report(String scenario, int ticks, long startedNanos) {
+		double seconds = (System.nanoTime() - startedNanos) / 1_000_000_000.0;
+		System.out.printf(Locale.ROOT, "%s: %d ticks in %.3fs (%.0f ticks/s)%n", scenario, ticks, seconds, ticks / seconds);
+	}
+
+	private static void check(List<String> failures, String description, boolean passed) {
+		if (!passed) {
+			failures.add(description);
+		}
+	}
+
+	private static final class SimulatedServer implements JoinTrackingEngine.RosterSource {
+		private final String[] names;
+		private final boolean[] online;
+
+		private SimulatedServer(String[] names) {
+			this.names = names;
+			this.online = new boolean[names.length];
+			for (int i = 0; i < online.length; i += 2) {
+				online[i] = true;
+			}
+		}
+
+		private boolean toggle(int player) {
+			online[player] = !online[player];
+			return online[player];
+		}
+
+		@Override
+		public void forEachPlayer(ObjIntConsumer<String> observer) {
+			for (int i = 0; i < names.length; i++) {
+				if (online[i]) {
+					observer.accept(names[i], 0);
+				}
+			}
+		}
+	}
+
+	private static final class RecordingOutput implements JoinTrackingEngine.Output {
+		private int messages;
+		private int chats;
+		private int digest;
+
+		@Override
+		public void showMessage(String message) {
+			messages++;
+			digest = digest * 31 + message.hashCode();
+		}
+
+		@Override
+		public boolean sendChat(String message) {
+			chats++;
+			digest = digest * 31 + message.hashCode();
+			return true;
+		}
+	}
+}
@@ -0,0 +1,60 @@
+package com.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProfileNameBenchmark {
+	private static final ReflectiveAccessor NAME_ACCESSOR = ReflectiveAccessor.getter("benchmark profile name", String.class, "name", "getName");
+
+	@Param({"10", "100", "1000", "5000"})
+	public int players;
+
+	private Object[] profiles;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		String[] names = BenchmarkData.playerNames(players, 6L);
+		profiles = new Object[players];
+		for (int i = 0; i < players; i++) {
+			profiles[i] = new Profile(names[i]);
+		}
+	}
+
+	@Benchmark
+	public void cachedAccessor(Blackhole blackhole) throws Throwable {
+		for (Object profile : profiles) {
+			MethodHandle accessor = NAME_ACCESSOR.resolve(profile);
+			blackhole.consume((String) (Object) accessor.invokeExact(profile));
+		}
+	}
+
+	@Benchmark
+	public void uncachedReflection(Blackhole blackhole) throws ReflectiveOperationException {
+		for (Object profile : profiles) {
+			blackhole.consume(profile.getClass().getMethod("name").invoke(profile));
+		}
+	}
+
+	public record Profile(String name) {
+	}
+}
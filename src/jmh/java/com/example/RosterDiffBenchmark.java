@@ -0,0 +1,95 @@
+package com.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RosterDiffBenchmark {
+	private static final int GAME_MODE_COUNT = 4;
+	private static final int SUGGESTION_LIMIT = 50;
+
+	@Param({"10", "100", "1000", "5000"})
+	public int players;
+
+	private final List<PlayerRoster.Entry> suggestions = new ArrayList<>();
+	private String[] names;
+	private String[] churnNames;
+	private int[] gameModes;
+	private PlayerRoster roster;
+	private int tick;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		names = BenchmarkData.playerNames(players, 1L);
+		churnNames = BenchmarkData.playerNames(Math.max(1, players / 100), 2L);
+		gameModes = new int[players];
+		roster = new PlayerRoster();
+		roster.beginScan();
+		for (String name : names) {
+			roster.observe(name, 0);
+		}
+		roster.endScan();
+	}
+
+	@Benchmark
+	public int steadyStateScan() {
+		roster.beginScan();
+		for (int i = 0; i < names.length; i++) {
+			roster.observe(names[i], gameModes[i]);
+		}
+		roster.endScan();
+		return roster.size();
+	}
+
+	@Benchmark
+	public void churnScan(Blackhole blackhole) {
+		int tick = this.tick++;
+		int churned = tick % (churnNames.length + 1);
+		gameModes[tick % names.length] = tick % GAME_MODE_COUNT;
+
+		roster.beginScan();
+		for (int i = churned; i < names.length; i++) {
+			roster.observe(names[i], gameModes[i]);
+		}
+		for (int i = 0; i < churned; i++) {
+			roster.observe(churnNames[i], 0);
+		}
+		roster.endScan();
+		blackhole.consume(roster.joined().size());
+		blackhole.consume(roster.left().size());
+		blackhole.consume(roster.gameModeChanges().size());
+	}
+
+	@Benchmark
+	public int prefixSuggestions() {
+		String name = names[tick++ % names.length];
+		suggestions.clear();
+		return roster.findByPrefix(name.substring(0, Math.min(2, name.length())), SUGGESTION_LIMIT, suggestions);
+	}
+
+	@Benchmark
+	public PlayerRoster.Entry exactLookup() {
+		return roster.find(names[tick++ % names.length].toUpperCase(Locale.ROOT));
+	}
+}
@@ -0,0 +1,84 @@
+package com.example;
+
+import java.util.List;
+
+record SimulationSettings(
+	boolean enabled,
+	boolean suppressIfServerMessage,
+	boolean autoWelcomeEnabled,
+	MessageTemplate autoWelcomeTemplate,
+	boolean eventDrivenRosterTracking,
+	List<PatternPack> patternPacks,
+	boolean coalesceJoinStorms,
+	int coalesceWindowMs,
+	int maxMessagesPerSecond
+) implements JoinTrackingEngine.Settings {
+	private static final MessageTemplate JOIN_TEMPLATE = MessageTemplate.compile(MessageTemplate.DEFAULT_JOIN);
+	private static final MessageTemplate LEAVE_TEMPLATE = MessageTemplate.compile(MessageTemplate.DEFAULT_LEAVE);
+	private static final MessageTemplate GAMEMODE_CHANGE_TEMPLATE = MessageTemplate.compile(MessageTemplate.DEFAULT_GAMEMODE_CHANGE);
+	private static final MessageTemplate JOIN_GAMEMODE_TEMPLATE = MessageTemplate.compile(MessageTemplate.DEFAULT_JOIN_GAMEMODE);
+
+	static SimulationSettings defaults() {
+		return new SimulationSettings(true, true, false, MessageTemplate.compile(MessageTemplate.DEFAULT_AUTO_WELCOME), true, List.of(), false, 1500, 4);
+	}
+
+	SimulationSettings withCoalescing(int windowMs, int maxPerSecond) {
+		return new SimulationSettings(enabled, suppressIfServerMessage, autoWelcomeEnabled, autoWelcomeTemplate,
+			eventDrivenRosterTracking, patternPacks, true, windowMs, maxPerSecond);
+	}
+
+	SimulationSettings withEveryTickScans() {
+		return new SimulationSettings(enabled, suppressIfServerMessage, autoWelcomeEnabled, autoWelcomeTemplate,
+			false, patternPacks, coalesceJoinStorms, coalesceWindowMs, maxMessagesPerSecond);
+	}
+
+	SimulationSettings withPatternPacks(List<PatternPack> patternPacks) {
+		return new SimulationSettings(enabled, suppressIfServerMessage, autoWelcomeEnabled, autoWelcomeTemplate,
+			eventDrivenRosterTracking, patternPacks, coalesceJoinStorms, coalesceWindowMs, maxMessagesPerSecond);
+	}
+
+	SimulationSettings withAutoWelcome() {
+		return new SimulationSettings(enabled, suppressIfServerMessage, true, autoWelcomeTemplate,
+			eventDrivenRosterTracking, patternPacks, coalesceJoinStorms, coalesceWindowMs, maxMessagesPerSecond);
+	}
+
+	@Override
+	public boolean announcesGameModeChangeTo(int gameModeId) {
+		return false;
+	}
+
+	@Override
+	public boolean notifiesJoinGameMode(int gameModeId) {
+		return false;
+	}
+
+	@Override
+	public boolean playerHistoryNotes() {
+		return false;
+	}
+
+	@Override
+	public boolean watches(String normalizedName) {
+		return true;
+	}
+
+	@Override
+	public MessageTemplate joinTemplate() {
+		return JOIN_TEMPLATE;
+	}
+
+	@Override
+	public MessageTemplate leaveTemplate() {
+		return LEAVE_TEMPLATE;
+	}
+
+	@Override
+	public MessageTemplate gameModeChangeTemplate() {
+		return GAMEMODE_CHANGE_TEMPLATE;
+	}
+
+	@Override
+	public MessageTemplate joinGameModeTemplate() {
+		return JOIN_GAMEMODE_TEMPLATE;
+	}
+}
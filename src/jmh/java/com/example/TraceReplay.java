@@ -0,0 +1,48 @@
+package com.example;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+
+public final class TraceReplay {
+	private TraceReplay() {
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length == 0) {
+			System.err.println("Usage: TraceReplay <trace.jmtrace>...");
+			System.exit(2);
+		}
+		SimulationSettings settings = SimulationSettings.defaults().withAutoWelcome();
+		for (String arg : args) {
+			Path trace = Path.of(arg);
+			PrintingOutput output = new PrintingOutput();
+			long started = System.nanoTime();
+			SessionTraceReplayer.Stats stats = SessionTraceReplayer.replay(trace, () -> settings, output);
+			double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+			System.out.printf(Locale.ROOT, "%s: %d ticks, %d messages, %d mod messages, %d auto-welcomes in %.3fs (%.0fx real time)%n",
+				trace, stats.ticks(), stats.messages(), output.messages, output.chats, seconds, stats.sessionMillis() / 1000.0 / seconds);
+			for (String missed : stats.prefilterMisses()) {
+				System.out.println("  [prefilter rejected an announcement] " + missed);
+			}
+		}
+	}
+
+	private static final class PrintingOutput implements JoinTrackingEngine.Output {
+		private int messages;
+		private int chats;
+
+		@Override
+		public void showMessage(String message) {
+			messages++;
+			System.out.println("  [mod] " + message);
+		}
+
+		@Override
+		public boolean sendChat(String message) {
+			chats++;
+			System.out.println("  [chat] " + message);
+			return true;
+		}
+	}
+}
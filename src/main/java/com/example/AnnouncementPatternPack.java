@@ -0,0 +1,191 @@
+package com.example;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+final class AnnouncementPatternPack {
+	private static final Logger LOGGER = LoggerFactory.getLogger(JoinMessagesMod.MOD_ID + "-patterns");
+	private static final String PLAYER_GROUP = "player";
+	private static final String PLAYER_GROUP_SYNTAX = "(?<" + PLAYER_GROUP + ">";
+	private static final CustomPattern[] NO_PATTERNS = new CustomPattern[0];
+
+	static final AnnouncementPatternPack DEFAULT = new AnnouncementPatternPack(
+		"default",
+		List.of(),
+		ChatAnnouncementClassifier.DEFAULT,
+		true,
+		NO_PATTERNS,
+		NO_PATTERNS,
+		NO_PATTERNS
+	);
+
+	private final String name;
+	private final List<String> serverRules;
+	private final ChatAnnouncementClassifier prefilterClassifier;
+	private final boolean includeDefaultPatterns;
+	private final CustomPattern[] joinPatterns;
+	private final CustomPattern[] leavePatterns;
+	private final CustomPattern[] welcomePatterns;
+
+	private AnnouncementPatternPack(
+		String name,
+		List<String> serverRules,
+		ChatAnnouncementClassifier prefilterClassifier,
+		boolean includeDefaultPatterns,
+		CustomPattern[] joinPatterns,
+		CustomPattern[] leavePatterns,
+		CustomPattern[] welcomePatterns
+	) {
+		this.name = name;
+		this.serverRules = serverRules;
+		this.prefilterClassifier = prefilterClassifier;
+		this.includeDefaultPatterns = includeDefaultPatterns;
+		this.joinPatterns = joinPatterns;
+		this.leavePatterns = leavePatterns;
+		this.welcomePatterns = welcomePatterns;
+	}
+
+	static AnnouncementPatternPack compile(PatternPack definition) {
+		CustomPattern[] joinPatterns = compilePatterns(definition, definition.joinPatterns());
+		CustomPattern[] leavePatterns = compilePatterns(definition, definition.leavePatterns());
+		CustomPattern[] welcomePatterns = compilePatterns(definition, definition.welcomePatterns());
+		boolean hasCustomPatterns = joinPatterns.length > 0 || leavePatterns.length > 0 || welcomePatterns.length > 0;
+
+		ChatAnnouncementClassifier classifier = null;
+		if (!hasCustomPatterns) {
+			classifier = definition.includeDefaultPatterns()
+				? ChatAnnouncementClassifier.DEFAULT
+				: ChatAnnouncementClassifier.withCustomKeywords(false, List.of());
+		} else if (!definition.keywords().isEmpty()
+			&& definition.keywords().size() <= ChatAnnouncementClassifier.maxCustomKeywords(definition.includeDefaultPatterns())
+			&& definition.keywords().stream().allMatch(ChatAnnouncementClassifier::supportsKeyword)) {
+			classifier = ChatAnnouncementClassifier.withCustomKeywords(definition.includeDefaultPatterns(), definition.keywords());
+		} else {
+			LOGGER.info(
+				"Pattern pack '{}' has no usable ASCII keyword set for its custom patterns; chat pre-filtering is disabled while it is active.",
+				definition.name()
+			);
+		}
+
+		List<String> serverRules = new ArrayList<>();
+		for (String server : definition.servers()) {
+			serverRules.add(normalizeServerAddress(server));
+		}
+		return new AnnouncementPatternPack(
+			definition.name(),
+			List.copyOf(serverRules),
+			classifier,
+			definition.includeDefaultPatterns(),
+			joinPatterns,
+			leavePatterns,
+			welcomePatterns
+		);
+	}
+
+	String name() {
+		return name;
+	}
+
+	ChatAnnouncementClassifier prefilterClassifier() {
+		return prefilterClassifier;
+	}
+
+	boolean matchesServer(String normalizedAddress) {
+		for (String rule : serverRules) {
+			if (rule.startsWith("*.")) {
+				String domain = rule.substring(2);
+				if (normalizedAddress.equals(domain) || normalizedAddress.endsWith(rule.substring(1))) {
+					return true;
+				}
+			} else if (normalizedAddress.equals(rule)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	void classify(String text, ChatAnnouncementClassifier.Result result) {
+		if (includeDefaultPatterns) {
+			ChatAnnouncementClassifier.DEFAULT.classify(text, result);
+		} else {
+			result.reset();
+		}
+
+		for (CustomPattern pattern : joinPatterns) {
+			Matcher matcher = pattern.pattern().matcher(text);
+			while (matcher.find()) {
+				String playerName = pattern.playerName(matcher);
+				if (playerName == null) {
+					result.markJoinPhrase();
+				} else {
+					result.addJoinName(playerName);
+				}
+			}
+		}
+		for (CustomPattern pattern : leavePatterns) {
+			Matcher matcher = pattern.pattern().matcher(text);
+			while (matcher.find()) {
+				String playerName = pattern.playerName(matcher);
+				if (playerName == null) {
+					result.markLeavePhrase();
+				} else {
+					result.addLeaveName(playerName);
+				}
+			}
+		}
+		for (CustomPattern pattern : welcomePatterns) {
+			Matcher matcher = pattern.pattern().matcher(text);
+			if (matcher.find()) {
+				String playerName = pattern.playerName(matcher);
+				if (playerName != null) {
+					result.setWelcomeName(playerName);
+				}
+			}
+		}
+	}
+
+	static String normalizeServerAddress(String address) {
+		String normalized = address.trim().toLowerCase(Locale.ROOT);
+		int portSeparator = normalized.lastIndexOf(':');
+		if (portSeparator > 0 && normalized.indexOf(':') == portSeparator) {
+			normalized = normalized.substring(0, portSeparator);
+		}
+		while (normalized.endsWith(".")) {
+			normalized = normalized.substring(0, normalized.length() - 1);
+		}
+		return normalized;
+	}
+
+	private static CustomPattern[] compilePatterns(PatternPack definition, List<String> sources) {
+		List<CustomPattern> patterns = new ArrayList<>();
+		for (String source : sources) {
+			try {
+				patterns.add(new CustomPattern(Pattern.compile(source), source.contains(PLAYER_GROUP_SYNTAX)));
+			} catch (PatternSyntaxException e) {
+				LOGGER.warn("Ignoring invalid pattern in pack '{}': {}", definition.name(), e.getMessage());
+			}
+		}
+		return patterns.toArray(NO_PATTERNS);
+	}
+
+	private record CustomPattern(Pattern pattern, boolean namedPlayerGroup) {
+		String playerName(Matcher matcher) {
+			String playerName;
+			if (namedPlayerGroup) {
+				playerName = matcher.group(PLAYER_GROUP);
+			} else if (matcher.groupCount() > 0) {
+				playerName = matcher.group(1);
+			} else {
+				return null;
+			}
+			return playerName == null || playerName.isBlank() ? null : playerName;
+		}
+	}
+}
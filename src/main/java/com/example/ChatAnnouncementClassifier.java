@@ -0,0 +1,359 @@
+package com.example;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+final class ChatAnnouncementClassifier {
+	static final int INITIAL_STATE = 0;
+	static final int KEYWORD_FOUND = -1;
+	private static final int ALPHABET_SIZE = 128;
+	private static final int MIN_NAME_LENGTH = 3;
+	private static final int MAX_NAME_LENGTH = 16;
+	private static final String WELCOME_PREFIX = "Welcome";
+
+	private static final Keyword[] DEFAULT_KEYWORDS = {
+		new Keyword("joined", Kind.JOIN_VERB),
+		new Keyword("connected", Kind.JOIN_VERB),
+		new Keyword("left", Kind.LEAVE_VERB),
+		new Keyword("quit", Kind.LEAVE_VERB),
+		new Keyword("disconnected", Kind.LEAVE_VERB),
+		new Keyword(" joined the game", Kind.JOIN_PHRASE),
+		new Keyword(" joined the server", Kind.JOIN_PHRASE),
+		new Keyword(" connected", Kind.JOIN_PHRASE),
+		new Keyword(" left the game", Kind.LEAVE_PHRASE),
+		new Keyword(" left the server", Kind.LEAVE_PHRASE),
+		new Keyword(" disconnected", Kind.LEAVE_PHRASE),
+		new Keyword(" quit", Kind.LEAVE_PHRASE),
+		new Keyword("welcome", Kind.WELCOME)
+	};
+
+	static final ChatAnnouncementClassifier DEFAULT = new ChatAnnouncementClassifier(DEFAULT_KEYWORDS);
+
+	private final Keyword[] keywords;
+	private final int[] transitions;
+	private final int[] outputs;
+
+	private ChatAnnouncementClassifier(Keyword[] keywords) {
+		if (keywords.length > Integer.SIZE) {
+			throw new IllegalArgumentException("At most " + Integer.SIZE + " keywords are supported");
+		}
+		this.keywords = keywords;
+
+		int maxStates = 1;
+		for (Keyword keyword : keywords) {
+			maxStates += keyword.text().length();
+		}
+		int[] goTo = new int[maxStates * ALPHABET_SIZE];
+		Arrays.fill(goTo, -1);
+		int[] stateOutputs = new int[maxStates];
+		int stateCount = 1;
+		for (int id = 0; id < keywords.length; id++) {
+			String text = keywords[id].text();
+			int state = 0;
+			for (int i = 0; i < text.length(); i++) {
+				int c = text.charAt(i);
+				int next = goTo[state * ALPHABET_SIZE + c];
+				if (next < 0) {
+					next = stateCount++;
+					goTo[state * ALPHABET_SIZE + c] = next;
+				}
+				state = next;
+			}
+			stateOutputs[state] |= 1 << id;
+		}
+
+		int[] failure = new int[stateCount];
+		ArrayDeque<Integer> queue = new ArrayDeque<>();
+		for (int c = 0; c < ALPHABET_SIZE; c++) {
+			int next = goTo[c];
+			if (next < 0) {
+				goTo[c] = 0;
+			} else {
+				failure[next] = 0;
+				queue.add(next);
+			}
+		}
+		while (!queue.isEmpty()) {
+			int state = queue.poll();
+			stateOutputs[state] |= stateOutputs[failure[state]];
+			for (int c = 0; c < ALPHABET_SIZE; c++) {
+				int index = state * ALPHABET_SIZE + c;
+				int next = goTo[index];
+				if (next < 0) {
+					goTo[index] = goTo[failure[state] * ALPHABET_SIZE + c];
+				} else {
+					failure[next] = goTo[failure[state] * ALPHABET_SIZE + c];
+					queue.add(next);
+				}
+			}
+		}
+
+		this.transitions = Arrays.copyOf(goTo, stateCount * ALPHABET_SIZE);
+		this.outputs = Arrays.copyOf(stateOutputs, stateCount);
+	}
+
+	static ChatAnnouncementClassifier withCustomKeywords(boolean includeDefaults, List<String> customKeywords) {
+		List<Keyword> keywords = new ArrayList<>();
+		if (includeDefaults) {
+			keywords.addAll(Arrays.asList(DEFAULT_KEYWORDS));
+		}
+		for (String customKeyword : customKeywords) {
+			keywords.add(new Keyword(customKeyword.toLowerCase(Locale.ROOT), Kind.CUSTOM));
+		}
+		return new ChatAnnouncementClassifier(keywords.toArray(new Keyword[0]));
+	}
+
+	static int maxCustomKeywords(boolean includeDefaults) {
+		return Integer.SIZE - (includeDefaults ? DEFAULT_KEYWORDS.length : 0);
+	}
+
+	static boolean supportsKeyword(String keyword) {
+		if (keyword.isEmpty()) {
+			return false;
+		}
+		for (int i = 0; i < keyword.length(); i++) {
+			if (keyword.charAt(i) >= ALPHABET_SIZE) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	int advance(int state, String text) {
+		return advance(state, text, 0, text.length());
+	}
+
+	int advance(int state, String text, int start, int end) {
+		for (int i = start; i < end; i++) {
+			int c = text.charAt(i);
+			if (c >= ALPHABET_SIZE) {
+				state = 0;
+				continue;
+			}
+			if (c >= 'A' && c <= 'Z') {
+				c += 'a' - 'A';
+			}
+			state = transitions[state * ALPHABET_SIZE + c];
+			if (outputs[state] != 0) {
+				return KEYWORD_FOUND;
+			}
+		}
+		return state;
+	}
+
+	void classify(String text, Result result) {
+		result.reset();
+		int state = 0;
+		int length = text.length();
+		for (int i = 0; i < length; i++) {
+			int c = text.charAt(i);
+			if (c >= ALPHABET_SIZE) {
+				state = 0;
+				continue;
+			}
+			if (c >= 'A' && c <= 'Z') {
+				c += 'a' - 'A';
+			}
+			state = transitions[state * ALPHABET_SIZE + c];
+			int matched = outputs[state];
+			while (matched != 0) {
+				int id = Integer.numberOfTrailingZeros(matched);
+				matched &= matched - 1;
+				onKeyword(text, i + 1, keywords[id], result);
+			}
+		}
+	}
+
+	private static void onKeyword(String text, int end, Keyword keyword, Result result) {
+		int start = end - keyword.text().length();
+		switch (keyword.kind()) {
+			case JOIN_VERB -> {
+				int nameStart = findAnnouncedName(text, start, end, result.lastJoinMatchEnd);
+				if (nameStart >= 0) {
+					result.joinNames.add(text.substring(nameStart, lastWordEnd(text, start)));
+					result.lastJoinMatchEnd = end;
+				}
+			}
+			case LEAVE_VERB -> {
+				int nameStart = findAnnouncedName(text, start, end, result.lastLeaveMatchEnd);
+				if (nameStart >= 0) {
+					result.leaveNames.add(text.substring(nameStart, lastWordEnd(text, start)));
+					result.lastLeaveMatchEnd = end;
+				}
+			}
+			case JOIN_PHRASE -> result.joinPhrase = true;
+			case LEAVE_PHRASE -> result.leavePhrase = true;
+			case WELCOME -> {
+				if (result.welcomeName == null) {
+					result.welcomeName = parseWelcome(text, start);
+				}
+			}
+			case CUSTOM -> {
+			}
+		}
+	}
+
+	// Mirrors \b([A-Za-z0-9_]{3,16})\b\s+<verb>\b with find() semantics: matches of one kind never overlap.
+	private static int findAnnouncedName(String text, int verbStart, int verbEnd, int notBefore) {
+		if (verbEnd < text.length() && isWordChar(text.charAt(verbEnd))) {
+			return -1;
+		}
+		int nameEnd = lastWordEnd(text, verbStart);
+		if (nameEnd == verbStart) {
+			return -1;
+		}
+		int nameStart = nameEnd;
+		while (nameStart > 0 && isWordChar(text.charAt(nameStart - 1))) {
+			nameStart--;
+		}
+		int nameLength = nameEnd - nameStart;
+		if (nameLength < MIN_NAME_LENGTH || nameLength > MAX_NAME_LENGTH || nameStart < notBefore) {
+			return -1;
+		}
+		return nameStart;
+	}
+
+	private static int lastWordEnd(String text, int verbStart) {
+		int index = verbStart;
+		while (index > 0 && isWhitespace(text.charAt(index - 1))) {
+			index--;
+		}
+		return index;
+	}
+
+	// Mirrors ^Welcome\s+([A-Za-z0-9_]{3,16})\s+to\s+the\s+server!$ applied to the trimmed message.
+	private static String parseWelcome(String text, int start) {
+		for (int i = 0; i < start; i++) {
+			if (text.charAt(i) > ' ') {
+				return null;
+			}
+		}
+		if (!text.startsWith(WELCOME_PREFIX, start)) {
+			return null;
+		}
+		int index = skipWhitespace(text, start + WELCOME_PREFIX.length());
+		if (index < 0) {
+			return null;
+		}
+		int nameStart = index;
+		while (index < text.length() && isWordChar(text.charAt(index))) {
+			index++;
+		}
+		int nameEnd = index;
+		int nameLength = nameEnd - nameStart;
+		if (nameLength < MIN_NAME_LENGTH || nameLength > MAX_NAME_LENGTH) {
+			return null;
+		}
+		index = skipWhitespace(text, index);
+		if (index < 0 || !text.startsWith("to", index)) {
+			return null;
+		}
+		index = skipWhitespace(text, index + 2);
+		if (index < 0 || !text.startsWith("the", index)) {
+			return null;
+		}
+		index = skipWhitespace(text, index + 3);
+		if (index < 0 || !text.startsWith("server!", index)) {
+			return null;
+		}
+		for (int i = index + 7; i < text.length(); i++) {
+			if (text.charAt(i) > ' ') {
+				return null;
+			}
+		}
+		return text.substring(nameStart, nameEnd);
+	}
+
+	private static int skipWhitespace(String text, int index) {
+		int start = index;
+		while (index < text.length() && isWhitespace(text.charAt(index))) {
+			index++;
+		}
+		return index == start ? -1 : index;
+	}
+
+	private static boolean isWordChar(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+	}
+
+	private static boolean isWhitespace(char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+	}
+
+	enum Kind {
+		JOIN_VERB,
+		LEAVE_VERB,
+		JOIN_PHRASE,
+		LEAVE_PHRASE,
+		WELCOME,
+		CUSTOM
+	}
+
+	record Keyword(String text, Kind kind) {
+	}
+
+	static final class Result {
+		private final List<String> joinNames = new ArrayList<>();
+		private final List<String> leaveNames = new ArrayList<>();
+		private boolean joinPhrase;
+		private boolean leavePhrase;
+		private String welcomeName;
+		private int lastJoinMatchEnd;
+		private int lastLeaveMatchEnd;
+
+		void reset() {
+			joinNames.clear();
+			leaveNames.clear();
+			joinPhrase = false;
+			leavePhrase = false;
+			welcomeName = null;
+			lastJoinMatchEnd = 0;
+			lastLeaveMatchEnd = 0;
+		}
+
+		void addJoinName(String playerName) {
+			joinNames.add(playerName);
+		}
+
+		void addLeaveName(String playerName) {
+			leaveNames.add(playerName);
+		}
+
+		void markJoinPhrase() {
+			joinPhrase = true;
+		}
+
+		void markLeavePhrase() {
+			leavePhrase = true;
+		}
+
+		void setWelcomeName(String playerName) {
+			if (welcomeName == null) {
+				welcomeName = playerName;
+			}
+		}
+
+		List<String> joinNames() {
+			return joinNames;
+		}
+
+		List<String> leaveNames() {
+			return leaveNames;
+		}
+
+		boolean joinPhrase() {
+			return joinPhrase;
+		}
+
+		boolean leavePhrase() {
+			return leavePhrase;
+		}
+
+		String welcomeName() {
+			return welcomeName;
+		}
+	}
+}
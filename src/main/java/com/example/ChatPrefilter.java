@@ -0,0 +1,150 @@
+package com.example;
+
+import net.minecraft.locale.Language;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.ComponentContents;
+import net.minecraft.network.chat.contents.PlainTextContents;
+import net.minecraft.network.chat.contents.TranslatableContents;
+
+import java.util.List;
+
+final class ChatPrefilter {
+	static final int IRRELEVANT = 0;
+	static final int MAY_CONTAIN_KEYWORD = 1;
+	static final int HAS_ANNOUNCEMENT_KEY = 1 << 1;
+
+	private static final int MAX_DEPTH = 16;
+
+	private ChatAnnouncementClassifier classifier;
+	private int state;
+	private int flags;
+	private long passed;
+	private long rejected;
+
+	ChatPrefilter(ChatAnnouncementClassifier classifier) {
+		this.classifier = classifier;
+	}
+
+	void use(ChatAnnouncementClassifier classifier) {
+		this.classifier = classifier;
+	}
+
+	int test(Component message) {
+		if (classifier == null) {
+			passed++;
+			return MAY_CONTAIN_KEYWORD;
+		}
+		state = ChatAnnouncementClassifier.INITIAL_STATE;
+		flags = IRRELEVANT;
+		visit(message, 0);
+		if (flags == IRRELEVANT) {
+			rejected++;
+		} else {
+			passed++;
+		}
+		return flags;
+	}
+
+	long passed() {
+		return passed;
+	}
+
+	long rejected() {
+		return rejected;
+	}
+
+	void resetCounters() {
+		passed = 0L;
+		rejected = 0L;
+	}
+
+	private boolean visit(Component component, int depth) {
+		if (depth > MAX_DEPTH) {
+			flags |= MAY_CONTAIN_KEYWORD;
+			return true;
+		}
+		if (visitContents(component.getContents(), depth)) {
+			return true;
+		}
+		List<Component> siblings = component.getSiblings();
+		for (int i = 0; i < siblings.size(); i++) {
+			if (visit(siblings.get(i), depth + 1)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean visitContents(ComponentContents contents, int depth) {
+		if (contents instanceof PlainTextContents plain) {
+			return scan(plain.text());
+		}
+		if (!(contents instanceof TranslatableContents translatable)) {
+			// Scores, selectors, keybinds and NBT resolve to text we cannot see here; let the parsers decide.
+			flags |= MAY_CONTAIN_KEYWORD;
+			return true;
+		}
+
+		String key = translatable.getKey();
+		if (key.startsWith("multiplayer.player.")) {
+			flags |= HAS_ANNOUNCEMENT_KEY;
+			return true;
+		}
+		String fallback = translatable.getFallback();
+		return visitTranslation(Language.getInstance().getOrDefault(key, fallback != null ? fallback : key), translatable.getArgs(), depth);
+	}
+
+	// Walks the template in the order getString() renders it, so keywords split around %s arguments still match.
+	private boolean visitTranslation(String format, Object[] args, int depth) {
+		int literalStart = 0;
+		int nextArgument = 0;
+		int percent = format.indexOf('%');
+		while (percent >= 0) {
+			int index = percent + 1;
+			int position = 0;
+			while (index < format.length() && format.charAt(index) >= '0' && format.charAt(index) <= '9') {
+				position = position * 10 + format.charAt(index++) - '0';
+			}
+			boolean positional = index > percent + 1 && index < format.length() && format.charAt(index) == '$';
+			index = positional ? index + 1 : percent + 1;
+			char type = index < format.length() ? format.charAt(index) : 0;
+			if (type == '%') {
+				if (scan(format, literalStart, percent + 1)) {
+					return true;
+				}
+				literalStart = index + 1;
+			} else if (type == 's') {
+				if (scan(format, literalStart, percent)) {
+					return true;
+				}
+				int argument = positional ? position - 1 : nextArgument++;
+				if (argument >= 0 && argument < args.length && visitArgument(args[argument], depth)) {
+					return true;
+				}
+				literalStart = index + 1;
+			}
+			percent = format.indexOf('%', Math.max(literalStart, percent + 1));
+		}
+		return scan(format, literalStart, format.length());
+	}
+
+	private boolean visitArgument(Object argument, int depth) {
+		if (argument instanceof Component component) {
+			return visit(component, depth + 1);
+		}
+		return scan(String.valueOf(argument));
+	}
+
+	private boolean scan(String text) {
+		return scan(text, 0, text.length());
+	}
+
+	private boolean scan(String text, int start, int end) {
+		state = classifier.advance(state, text, start, end);
+		if (state == ChatAnnouncementClassifier.KEYWORD_FOUND) {
+			flags |= MAY_CONTAIN_KEYWORD;
+			return true;
+		}
+		return false;
+	}
+}
@@ -0,0 +1,117 @@
+package com.example;
+
+final class DeadlineWheel {
+	private static final int SLOT_COUNT = 256;
+	private static final int SLOT_MASK = SLOT_COUNT - 1;
+
+	private final long tickMillis;
+	private final Timeout[] slots = new Timeout[SLOT_COUNT];
+	private long lastProcessedTick = Long.MIN_VALUE;
+	private int size = 0;
+
+	DeadlineWheel(long tickMillis) {
+		this.tickMillis = tickMillis;
+	}
+
+	void schedule(Timeout timeout, long deadlineMillis) {
+		if (timeout.scheduled()) {
+			unlink(timeout);
+		}
+		timeout.deadlineMillis = deadlineMillis;
+		long tick = Math.max((deadlineMillis + tickMillis - 1) / tickMillis, lastProcessedTick + 1);
+		int slot = (int) (tick & SLOT_MASK);
+		timeout.slot = slot;
+		timeout.next = slots[slot];
+		if (timeout.next != null) {
+			timeout.next.previous = timeout;
+		}
+		slots[slot] = timeout;
+		size++;
+	}
+
+	void cancel(Timeout timeout) {
+		if (timeout.scheduled()) {
+			unlink(timeout);
+		}
+	}
+
+	void advance(long nowMillis) {
+		long currentTick = nowMillis / tickMillis;
+		if (size == 0) {
+			lastProcessedTick = currentTick;
+			return;
+		}
+		long firstTick = Math.max(lastProcessedTick + 1, currentTick - SLOT_MASK);
+		for (long tick = firstTick; tick <= currentTick && size > 0; tick++) {
+			expireSlot((int) (tick & SLOT_MASK), nowMillis);
+		}
+		lastProcessedTick = currentTick;
+	}
+
+	void clear() {
+		for (int slot = 0; slot < SLOT_COUNT; slot++) {
+			Timeout timeout = slots[slot];
+			while (timeout != null) {
+				Timeout next = timeout.next;
+				timeout.reset();
+				timeout = next;
+			}
+			slots[slot] = null;
+		}
+		size = 0;
+	}
+
+	int size() {
+		return size;
+	}
+
+	private void expireSlot(int slot, long nowMillis) {
+		Timeout timeout = slots[slot];
+		while (timeout != null) {
+			if (timeout.deadlineMillis > nowMillis) {
+				timeout = timeout.next;
+				continue;
+			}
+			unlink(timeout);
+			timeout.expire(nowMillis);
+			// The callback may have scheduled or cancelled neighbours, so restart from the slot head.
+			timeout = slots[slot];
+		}
+	}
+
+	private void unlink(Timeout timeout) {
+		if (timeout.previous != null) {
+			timeout.previous.next = timeout.next;
+		} else {
+			slots[timeout.slot] = timeout.next;
+		}
+		if (timeout.next != null) {
+			timeout.next.previous = timeout.previous;
+		}
+		timeout.reset();
+		size--;
+	}
+
+	abstract static class Timeout {
+		private Timeout next;
+		private Timeout previous;
+		private int slot = -1;
+		private long deadlineMillis;
+
+		boolean scheduled() {
+			return slot >= 0;
+		}
+
+		long deadlineMillis() {
+			return deadlineMillis;
+		}
+
+		abstract void expire(long nowMillis);
+
+		private void reset() {
+			next = null;
+			previous = null;
+			slot = -1;
+		}
+	}
+}
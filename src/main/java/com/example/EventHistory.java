@@ -0,0 +1,175 @@
+package com.example;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+final class EventHistory {
+	static final int DEFAULT_CAPACITY = 1 << 17;
+	static final int NO_PLAYER = -1;
+	static final int ALL_TYPES = (1 << Type.values().length) - 1;
+	static final List<String> TYPE_FILTERS = List.of("join", "leave", "gamemode", "suppressed");
+
+	private static final Type[] TYPES = Type.values();
+
+	private final int capacity;
+	private final long[] timestamps;
+	private final int[] nameIds;
+	private final byte[] types;
+	private final byte[] oldGameModes;
+	private final byte[] newGameModes;
+	private final Map<String, Integer> idsByNormalizedName = new HashMap<>();
+	private String[] names = new String[256];
+	private String[] normalizedNames = new String[256];
+	private int[] references = new int[256];
+	private int[] freeIds = new int[256];
+	private int freeIdCount = 0;
+	private int nextId = 0;
+	private int head = 0;
+	private int size = 0;
+
+	EventHistory() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	EventHistory(int capacity) {
+		this.capacity = capacity;
+		this.timestamps = new long[capacity];
+		this.nameIds = new int[capacity];
+		this.types = new byte[capacity];
+		this.oldGameModes = new byte[capacity];
+		this.newGameModes = new byte[capacity];
+	}
+
+	void record(long now, String playerName, String normalizedName, Type type, int oldGameMode, int newGameMode) {
+		if (size == capacity) {
+			release(nameIds[head]);
+		} else {
+			size++;
+		}
+		timestamps[head] = now;
+		nameIds[head] = intern(playerName, normalizedName);
+		types[head] = (byte) type.ordinal();
+		oldGameModes[head] = (byte) oldGameMode;
+		newGameModes[head] = (byte) newGameMode;
+		head = head + 1 == capacity ? 0 : head + 1;
+	}
+
+	void clear() {
+		idsByNormalizedName.clear();
+		Arrays.fill(names, 0, nextId, null);
+		Arrays.fill(normalizedNames, 0, nextId, null);
+		Arrays.fill(references, 0, nextId, 0);
+		freeIdCount = 0;
+		nextId = 0;
+		head = 0;
+		size = 0;
+	}
+
+	int size() {
+		return size;
+	}
+
+	int capacity() {
+		return capacity;
+	}
+
+	int find(String playerName) {
+		Integer id = idsByNormalizedName.get(PlayerRoster.normalize(playerName));
+		return id != null ? id : NO_PLAYER;
+	}
+
+	int query(int nameId, int typeMask, int skip, int limit, Visitor visitor) {
+		int matches = 0;
+		int index = head;
+		for (int i = 0; i < size; i++) {
+			index = index == 0 ? capacity - 1 : index - 1;
+			if ((nameId != NO_PLAYER && nameIds[index] != nameId) || (typeMask & (1 << types[index])) == 0) {
+				continue;
+			}
+			if (matches >= skip && matches - skip < limit) {
+				visitor.accept(timestamps[index], names[nameIds[index]], TYPES[types[index]], oldGameModes[index], newGameModes[index]);
+			}
+			matches++;
+		}
+		return matches;
+	}
+
+	private int intern(String playerName, String normalizedName) {
+		Integer existing = idsByNormalizedName.get(normalizedName);
+		int id;
+		if (existing != null) {
+			id = existing;
+		} else {
+			id = freeIdCount > 0 ? freeIds[--freeIdCount] : allocateId();
+			normalizedNames[id] = normalizedName;
+			idsByNormalizedName.put(normalizedName, id);
+		}
+		names[id] = playerName;
+		references[id]++;
+		return id;
+	}
+
+	private int allocateId() {
+		if (nextId == names.length) {
+			int grown = names.length * 2;
+			names = Arrays.copyOf(names, grown);
+			normalizedNames = Arrays.copyOf(normalizedNames, grown);
+			references = Arrays.copyOf(references, grown);
+			freeIds = Arrays.copyOf(freeIds, grown);
+		}
+		return nextId++;
+	}
+
+	private void release(int id) {
+		if (--references[id] > 0) {
+			return;
+		}
+		idsByNormalizedName.remove(normalizedNames[id]);
+		names[id] = null;
+		normalizedNames[id] = null;
+		freeIds[freeIdCount++] = id;
+	}
+
+	static int typeFilter(String filter) {
+		return switch (filter.toLowerCase(Locale.ROOT)) {
+			case "join" -> mask(Type.JOIN, Type.SERVER_JOIN);
+			case "leave" -> mask(Type.LEAVE, Type.SERVER_LEAVE);
+			case "gamemode" -> mask(Type.GAMEMODE);
+			case "suppressed" -> mask(Type.SERVER_JOIN, Type.SERVER_LEAVE);
+			default -> 0;
+		};
+	}
+
+	static int mask(Type... types) {
+		int mask = 0;
+		for (Type type : types) {
+			mask |= 1 << type.ordinal();
+		}
+		return mask;
+	}
+
+	enum Type {
+		JOIN("joined"),
+		LEAVE("left"),
+		GAMEMODE("changed gamemode"),
+		SERVER_JOIN("joined (server message)"),
+		SERVER_LEAVE("left (server message)");
+
+		private final String description;
+
+		Type(String description) {
+			this.description = description;
+		}
+
+		String description() {
+			return description;
+		}
+	}
+
+	interface Visitor {
+		void accept(long timestampMillis, String playerName, Type type, int oldGameMode, int newGameMode);
+	}
+}
@@ -0,0 +1,85 @@
+package com.example;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+final class HotPathStats {
+	private final LatencyHistogram[] histograms = new LatencyHistogram[Probe.values().length];
+	private long resetAtNanos = System.nanoTime();
+
+	HotPathStats() {
+		for (int i = 0; i < histograms.length; i++) {
+			histograms[i] = new LatencyHistogram();
+		}
+	}
+
+	void record(Probe probe, long startNanos) {
+		histograms[probe.ordinal()].record(System.nanoTime() - startNanos);
+	}
+
+	LatencyHistogram histogram(Probe probe) {
+		return histograms[probe.ordinal()];
+	}
+
+	void reset() {
+		for (LatencyHistogram histogram : histograms) {
+			histogram.reset();
+		}
+		resetAtNanos = System.nanoTime();
+	}
+
+	List<String> report() {
+		double seconds = Math.max(1.0E-9, (System.nanoTime() - resetAtNanos) / 1_000_000_000.0);
+		List<String> lines = new ArrayList<>();
+		lines.add(String.format(Locale.ROOT, "Hot path timings over %.1fs (p50 / p99 / max in us)", seconds));
+		for (Probe probe : Probe.values()) {
+			LatencyHistogram histogram = histograms[probe.ordinal()];
+			if (histogram.count() == 0L) {
+				continue;
+			}
+			lines.add(String.format(
+				Locale.ROOT,
+				"%s: %.1f / %.1f / %.1f, %d calls, %.1f/s",
+				probe.label(),
+				histogram.percentileNanos(50.0) / 1000.0,
+				histogram.percentileNanos(99.0) / 1000.0,
+				histogram.maxNanos() / 1000.0,
+				histogram.count(),
+				histogram.count() / seconds
+			));
+		}
+		return lines;
+	}
+
+	void dump(Path path, List<String> extraLines) throws IOException {
+		List<String> lines = new ArrayList<>(report());
+		lines.addAll(extraLines);
+		Files.createDirectories(path.getParent());
+		Files.write(path, lines);
+	}
+
+	enum Probe {
+		TICK("Tick"),
+		TICK_FLUSH("Tick flush"),
+		TICK_SEED("Tick seed"),
+		TICK_DIFF("Tick roster diff"),
+		TICK_GAMEMODE("Tick gamemode changes"),
+		GAME_MESSAGE("Game message handler"),
+		CHAT_MESSAGE("Chat message handler"),
+		SEND_MESSAGE("Send mod message");
+
+		private final String label;
+
+		Probe(String label) {
+			this.label = label;
+		}
+
+		String label() {
+			return label;
+		}
+	}
+}
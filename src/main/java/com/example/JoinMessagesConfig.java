@@ -5,16 +5,39 @@ import com.google.gson.GsonBuilder;
 import com.google.gson.JsonParseException;
 import net.fabricmc.loader.api.FabricLoader;
 import net.minecraft.ChatFormatting;
+import net.minecraft.network.chat.Style;
+import net.minecraft.world.level.GameType;
 
 import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 public final class JoinMessagesConfig {
 	private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
 	private static final Path CONFIG_PATH = FabricLoader.getInstance().getConfigDir().resolve(JoinMessagesMod.MOD_ID + ".json");
+	private static final long SAVE_DEBOUNCE_MS = 500L;
+	private static final long FLUSH_TIMEOUT_SECONDS = 5L;
+	private static final ScheduledExecutorService WRITER = createWriter();
 	private static final JoinMessagesConfig INSTANCE = load();
 
 	private boolean enabled;
@@ -24,9 +47,25 @@ public final class JoinMessagesConfig {
 	private String autoWelcomeMessage;
 	private MessageColor messageColor;
 	private GameModeMessagesMode gameModeMessagesMode;
-	private boolean limitGamemodeTrackingByPlayerCount;
-	private int gamemodeTrackingMaxPlayers;
 	private JoinGamemodeNotifyMode joinGamemodeNotifyMode;
+	private boolean eventDrivenRosterTracking;
+	private List<PatternPack> patternPacks;
+	private boolean coalesceJoinStorms;
+	private int coalesceWindowMs;
+	private int maxMessagesPerSecond;
+	private boolean recordSessionTraces;
+	private boolean playerHistoryNotes;
+	private WatchlistMode watchlistMode;
+	private List<String> watchlist;
+	private String joinMessageTemplate;
+	private String leaveMessageTemplate;
+	private String gameModeChangeTemplate;
+	private String joinGameModeTemplate;
+	private volatile Snapshot snapshot;
+	private Snapshot pendingWrite;
+	private ScheduledFuture<?> scheduledWrite;
+	private String lastWrittenJson;
+	private Thread watcher;
 
 	private JoinMessagesConfig(
 		boolean enabled,
@@ -36,9 +75,20 @@ public final class JoinMessagesConfig {
 		String autoWelcomeMessage,
 		MessageColor messageColor,
 		GameModeMessagesMode gameModeMessagesMode,
-		boolean limitGamemodeTrackingByPlayerCount,
-		int gamemodeTrackingMaxPlayers,
-		JoinGamemodeNotifyMode joinGamemodeNotifyMode
+		JoinGamemodeNotifyMode joinGamemodeNotifyMode,
+		boolean eventDrivenRosterTracking,
+		List<PatternPack> patternPacks,
+		boolean coalesceJoinStorms,
+		int coalesceWindowMs,
+		int maxMessagesPerSecond,
+		boolean recordSessionTraces,
+		boolean playerHistoryNotes,
+		WatchlistMode watchlistMode,
+		List<String> watchlist,
+		String joinMessageTemplate,
+		String leaveMessageTemplate,
+		String gameModeChangeTemplate,
+		String joinGameModeTemplate
 	) {
 		this.enabled = enabled;
 		this.showPrefix = showPrefix;
@@ -47,9 +97,21 @@ public final class JoinMessagesConfig {
 		this.autoWelcomeMessage = autoWelcomeMessage;
 		this.messageColor = messageColor;
 		this.gameModeMessagesMode = gameModeMessagesMode;
-		this.limitGamemodeTrackingByPlayerCount = limitGamemodeTrackingByPlayerCount;
-		this.gamemodeTrackingMaxPlayers = sanitizeMaxPlayers(gamemodeTrackingMaxPlayers);
 		this.joinGamemodeNotifyMode = joinGamemodeNotifyMode;
+		this.eventDrivenRosterTracking = eventDrivenRosterTracking;
+		this.patternPacks = List.copyOf(patternPacks);
+		this.coalesceJoinStorms = coalesceJoinStorms;
+		this.coalesceWindowMs = sanitizeCoalesceWindowMs(coalesceWindowMs);
+		this.maxMessagesPerSecond = sanitizeMaxMessagesPerSecond(maxMessagesPerSecond);
+		this.recordSessionTraces = recordSessionTraces;
+		this.playerHistoryNotes = playerHistoryNotes;
+		this.watchlistMode = watchlistMode;
+		this.watchlist = sanitizeWatchlist(watchlist);
+		this.joinMessageTemplate = sanitizeTemplate(joinMessageTemplate, MessageTemplate.Kind.JOIN);
+		this.leaveMessageTemplate = sanitizeTemplate(leaveMessageTemplate, MessageTemplate.Kind.LEAVE);
+		this.gameModeChangeTemplate = sanitizeTemplate(gameModeChangeTemplate, MessageTemplate.Kind.GAMEMODE_CHANGE);
+		this.joinGameModeTemplate = sanitizeTemplate(joinGameModeTemplate, MessageTemplate.Kind.JOIN_GAMEMODE);
+		this.snapshot = new Snapshot(this);
 	}
 
 	public static JoinMessagesConfig getInstance() {
@@ -71,133 +133,348 @@ public final class JoinMessagesConfig {
 				return config;
 			}
 
-			MessageColor color = MessageColor.fromName(data.messageColor);
-			GameModeMessagesMode gameModeMode = GameModeMessagesMode.fromName(data.gameModeMessagesMode);
-			String autoWelcomeMessage = sanitizeAutoWelcomeMessage(data.autoWelcomeMessage);
-			return new JoinMessagesConfig(
-				data.enabled,
-				data.showPrefix,
-				data.suppressIfServerMessage,
-				data.autoWelcomeEnabled,
-				autoWelcomeMessage,
-				color,
-				gameModeMode,
-				data.limitGamemodeTrackingByPlayerCount,
-				sanitizeMaxPlayers(data.gamemodeTrackingMaxPlayers),
-				JoinGamemodeNotifyMode.fromName(data.joinGamemodeNotifyMode)
-			);
+			return fromSerialized(data);
 		} catch (IOException | JsonParseException e) {
 			JoinMessagesMod.LOGGER.warn("Failed to read config at {}. Using defaults.", CONFIG_PATH, e);
 			return defaults();
 		}
 	}
 
+	private static JoinMessagesConfig fromSerialized(SerializedConfig data) {
+		MessageColor color = MessageColor.fromName(data.messageColor);
+		GameModeMessagesMode gameModeMode = GameModeMessagesMode.fromName(data.gameModeMessagesMode);
+		String autoWelcomeMessage = sanitizeTemplate(data.autoWelcomeMessage, MessageTemplate.Kind.AUTO_WELCOME);
+		return new JoinMessagesConfig(
+			data.enabled,
+			data.showPrefix,
+			data.suppressIfServerMessage,
+			data.autoWelcomeEnabled,
+			autoWelcomeMessage,
+			color,
+			gameModeMode,
+			JoinGamemodeNotifyMode.fromName(data.joinGamemodeNotifyMode),
+			data.eventDrivenRosterTracking,
+			sanitizePatternPacks(data.patternPacks),
+			data.coalesceJoinStorms,
+			data.coalesceWindowMs,
+			data.maxMessagesPerSecond,
+			data.recordSessionTraces,
+			data.playerHistoryNotes,
+			WatchlistMode.fromName(data.watchlistMode),
+			data.watchlist != null ? data.watchlist : List.of(),
+			data.joinMessageTemplate,
+			data.leaveMessageTemplate,
+			data.gameModeChangeTemplate,
+			data.joinGameModeTemplate
+		);
+	}
+
+	public void startWatching() {
+		Thread thread;
+		synchronized (this) {
+			if (watcher != null) {
+				return;
+			}
+			thread = new Thread(this::watchConfigFile, JoinMessagesMod.MOD_ID + "-config-watcher");
+			thread.setDaemon(true);
+			watcher = thread;
+		}
+		thread.start();
+	}
+
+	private void watchConfigFile() {
+		Path directory = CONFIG_PATH.getParent();
+		Path fileName = CONFIG_PATH.getFileName();
+		try (WatchService watchService = directory.getFileSystem().newWatchService()) {
+			directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+			while (true) {
+				WatchKey key = watchService.take();
+				boolean changed = false;
+				for (WatchEvent<?> event : key.pollEvents()) {
+					if (event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context())) {
+						changed = true;
+					}
+				}
+				if (changed) {
+					reloadFromDisk();
+				}
+				if (!key.reset()) {
+					JoinMessagesMod.LOGGER.warn("Stopped watching {} for changes", directory);
+					return;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (IOException e) {
+			JoinMessagesMod.LOGGER.warn("Failed to watch {} for changes", CONFIG_PATH, e);
+		}
+	}
+
+	private void reloadFromDisk() {
+		SerializedConfig data;
+		try {
+			String json = Files.readString(CONFIG_PATH);
+			synchronized (this) {
+				if (json.equals(lastWrittenJson)) {
+					return;
+				}
+			}
+			data = GSON.fromJson(json, SerializedConfig.class);
+		} catch (NoSuchFileException e) {
+			return;
+		} catch (IOException | JsonParseException e) {
+			JoinMessagesMod.LOGGER.warn("Ignoring unreadable config change at {}", CONFIG_PATH, e);
+			return;
+		}
+		if (data == null) {
+			return;
+		}
+
+		JoinMessagesConfig loaded = fromSerialized(data);
+		synchronized (this) {
+			if (pendingWrite != null) {
+				return;
+			}
+			this.enabled = loaded.enabled;
+			this.showPrefix = loaded.showPrefix;
+			this.suppressIfServerMessage = loaded.suppressIfServerMessage;
+			this.autoWelcomeEnabled = loaded.autoWelcomeEnabled;
+			this.autoWelcomeMessage = loaded.autoWelcomeMessage;
+			this.messageColor = loaded.messageColor;
+			this.gameModeMessagesMode = loaded.gameModeMessagesMode;
+			this.joinGamemodeNotifyMode = loaded.joinGamemodeNotifyMode;
+			this.eventDrivenRosterTracking = loaded.eventDrivenRosterTracking;
+			this.patternPacks = loaded.patternPacks;
+			this.coalesceJoinStorms = loaded.coalesceJoinStorms;
+			this.coalesceWindowMs = loaded.coalesceWindowMs;
+			this.maxMessagesPerSecond = loaded.maxMessagesPerSecond;
+			this.recordSessionTraces = loaded.recordSessionTraces;
+			this.playerHistoryNotes = loaded.playerHistoryNotes;
+			this.watchlistMode = loaded.watchlistMode;
+			this.watchlist = loaded.watchlist;
+			this.joinMessageTemplate = loaded.joinMessageTemplate;
+			this.leaveMessageTemplate = loaded.leaveMessageTemplate;
+			this.gameModeChangeTemplate = loaded.gameModeChangeTemplate;
+			this.joinGameModeTemplate = loaded.joinGameModeTemplate;
+			this.snapshot = loaded.snapshot;
+		}
+		JoinMessagesMod.LOGGER.info("Reloaded config from {}", CONFIG_PATH);
+	}
+
+	public Snapshot snapshot() {
+		return snapshot;
+	}
+
 	public void save() {
+		scheduleWrite(0L);
+	}
+
+	public void flush() {
+		Future<?> write;
+		synchronized (this) {
+			if (scheduledWrite != null) {
+				scheduledWrite.cancel(false);
+			}
+			write = WRITER.submit(this::writePending);
+			scheduledWrite = null;
+		}
+
+		try {
+			write.get(FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException | TimeoutException e) {
+			JoinMessagesMod.LOGGER.warn("Failed to flush config to {}", CONFIG_PATH, e);
+		}
+	}
+
+	private void markDirty() {
+		snapshot = new Snapshot(this);
+		scheduleWrite(SAVE_DEBOUNCE_MS);
+	}
+
+	private synchronized void scheduleWrite(long delayMillis) {
+		pendingWrite = snapshot;
+		if (scheduledWrite != null) {
+			scheduledWrite.cancel(false);
+		}
+		scheduledWrite = WRITER.schedule(this::writePending, delayMillis, TimeUnit.MILLISECONDS);
+	}
+
+	private void writePending() {
+		Snapshot pending;
+		synchronized (this) {
+			pending = pendingWrite;
+			pendingWrite = null;
+		}
+		if (pending == null) {
+			return;
+		}
+		TrackerEvents.ConfigSave saveEvent = TrackerEvents.beginConfigSave();
+		String json = GSON.toJson(serialize(pending));
+		synchronized (this) {
+			lastWrittenJson = json;
+		}
+
+		boolean succeeded = false;
 		try {
 			Files.createDirectories(CONFIG_PATH.getParent());
-			SerializedConfig data = new SerializedConfig();
-			data.enabled = this.enabled;
-			data.showPrefix = this.showPrefix;
-			data.suppressIfServerMessage = this.suppressIfServerMessage;
-			data.autoWelcomeEnabled = this.autoWelcomeEnabled;
-			data.autoWelcomeMessage = sanitizeAutoWelcomeMessage(this.autoWelcomeMessage);
-			data.messageColor = this.messageColor.name();
-			data.gameModeMessagesMode = this.gameModeMessagesMode.name();
-			data.limitGamemodeTrackingByPlayerCount = this.limitGamemodeTrackingByPlayerCount;
-			data.gamemodeTrackingMaxPlayers = sanitizeMaxPlayers(this.gamemodeTrackingMaxPlayers);
-			data.joinGamemodeNotifyMode = this.joinGamemodeNotifyMode.name();
-
-			try (Writer writer = Files.newBufferedWriter(CONFIG_PATH)) {
-				GSON.toJson(data, writer);
+			Path tempPath = CONFIG_PATH.resolveSibling(CONFIG_PATH.getFileName() + ".tmp");
+			try (Writer writer = Files.newBufferedWriter(tempPath)) {
+				writer.write(json);
+			}
+			try {
+				Files.move(tempPath, CONFIG_PATH, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tempPath, CONFIG_PATH, StandardCopyOption.REPLACE_EXISTING);
 			}
+			succeeded = true;
 		} catch (IOException e) {
 			JoinMessagesMod.LOGGER.warn("Failed to write config at {}", CONFIG_PATH, e);
 		}
+		if (saveEvent != null) {
+			saveEvent.bytes = json.length();
+			saveEvent.succeeded = succeeded;
+			saveEvent.commit();
+		}
+	}
+
+	private static SerializedConfig serialize(Snapshot snapshot) {
+		SerializedConfig data = new SerializedConfig();
+		data.enabled = snapshot.enabled();
+		data.showPrefix = snapshot.showPrefix();
+		data.suppressIfServerMessage = snapshot.suppressIfServerMessage();
+		data.autoWelcomeEnabled = snapshot.autoWelcomeEnabled();
+		data.autoWelcomeMessage = snapshot.autoWelcomeMessage();
+		data.messageColor = snapshot.messageColor().name();
+		data.gameModeMessagesMode = snapshot.gameModeMessagesMode().name();
+		data.joinGamemodeNotifyMode = snapshot.joinGamemodeNotifyMode().name();
+		data.eventDrivenRosterTracking = snapshot.eventDrivenRosterTracking();
+		data.patternPacks = new ArrayList<>();
+		for (PatternPack pack : snapshot.patternPacks()) {
+			data.patternPacks.add(SerializedPatternPack.from(pack));
+		}
+		data.coalesceJoinStorms = snapshot.coalesceJoinStorms();
+		data.coalesceWindowMs = snapshot.coalesceWindowMs();
+		data.maxMessagesPerSecond = snapshot.maxMessagesPerSecond();
+		data.recordSessionTraces = snapshot.recordSessionTraces();
+		data.playerHistoryNotes = snapshot.playerHistoryNotes();
+		data.watchlistMode = snapshot.watchlistMode().name();
+		data.watchlist = new ArrayList<>(snapshot.watchlist());
+		data.joinMessageTemplate = snapshot.joinTemplate().source();
+		data.leaveMessageTemplate = snapshot.leaveTemplate().source();
+		data.gameModeChangeTemplate = snapshot.gameModeChangeTemplate().source();
+		data.joinGameModeTemplate = snapshot.joinGameModeTemplate().source();
+		return data;
 	}
 
 	public MessageColor messageColor() {
-		return messageColor;
+		return snapshot.messageColor();
 	}
 
-	public void setMessageColor(MessageColor messageColor) {
+	public synchronized void setMessageColor(MessageColor messageColor) {
 		if (this.messageColor == messageColor) {
 			return;
 		}
 		this.messageColor = messageColor;
-		save();
+		markDirty();
 	}
 
 	public boolean enabled() {
-		return enabled;
+		return snapshot.enabled();
 	}
 
-	public void setEnabled(boolean enabled) {
+	public synchronized void setEnabled(boolean enabled) {
 		if (this.enabled == enabled) {
 			return;
 		}
 		this.enabled = enabled;
-		save();
+		markDirty();
 	}
 
 	public boolean showPrefix() {
-		return showPrefix;
+		return snapshot.showPrefix();
 	}
 
-	public void setShowPrefix(boolean showPrefix) {
+	public synchronized void setShowPrefix(boolean showPrefix) {
 		if (this.showPrefix == showPrefix) {
 			return;
 		}
 		this.showPrefix = showPrefix;
-		save();
+		markDirty();
 	}
 
 	public boolean suppressIfServerMessage() {
-		return suppressIfServerMessage;
+		return snapshot.suppressIfServerMessage();
 	}
 
-	public void setSuppressIfServerMessage(boolean suppressIfServerMessage) {
+	public synchronized void setSuppressIfServerMessage(boolean suppressIfServerMessage) {
 		if (this.suppressIfServerMessage == suppressIfServerMessage) {
 			return;
 		}
 		this.suppressIfServerMessage = suppressIfServerMessage;
-		save();
+		markDirty();
 	}
 
 	public GameModeMessagesMode gameModeMessagesMode() {
-		return gameModeMessagesMode;
+		return snapshot.gameModeMessagesMode();
 	}
 
-	public void setGameModeMessagesMode(GameModeMessagesMode gameModeMessagesMode) {
+	public synchronized void setGameModeMessagesMode(GameModeMessagesMode gameModeMessagesMode) {
 		if (this.gameModeMessagesMode == gameModeMessagesMode) {
 			return;
 		}
 		this.gameModeMessagesMode = gameModeMessagesMode;
-		save();
+		markDirty();
 	}
 
 	public boolean autoWelcomeEnabled() {
-		return autoWelcomeEnabled;
+		return snapshot.autoWelcomeEnabled();
 	}
 
-	public void setAutoWelcomeEnabled(boolean autoWelcomeEnabled) {
+	public synchronized void setAutoWelcomeEnabled(boolean autoWelcomeEnabled) {
 		if (this.autoWelcomeEnabled == autoWelcomeEnabled) {
 			return;
 		}
 		this.autoWelcomeEnabled = autoWelcomeEnabled;
-		save();
+		markDirty();
 	}
 
 	public String autoWelcomeMessage() {
-		return sanitizeAutoWelcomeMessage(autoWelcomeMessage);
+		return snapshot.autoWelcomeMessage();
 	}
 
-	public void setAutoWelcomeMessage(String autoWelcomeMessage) {
-		String sanitized = sanitizeAutoWelcomeMessage(autoWelcomeMessage);
-		if (this.autoWelcomeMessage.equals(sanitized)) {
+	public synchronized void setAutoWelcomeMessage(String autoWelcomeMessage) {
+		setMessageTemplate(MessageTemplate.Kind.AUTO_WELCOME, autoWelcomeMessage);
+	}
+
+	String messageTemplate(MessageTemplate.Kind kind) {
+		return snapshot.template(kind).source();
+	}
+
+	synchronized void setMessageTemplate(MessageTemplate.Kind kind, String template) {
+		String sanitized = sanitizeTemplate(template, kind);
+		if (messageTemplate(kind).equals(sanitized)) {
 			return;
 		}
-		this.autoWelcomeMessage = sanitized;
-		save();
+		switch (kind) {
+			case JOIN -> this.joinMessageTemplate = sanitized;
+			case LEAVE -> this.leaveMessageTemplate = sanitized;
+			case GAMEMODE_CHANGE -> this.gameModeChangeTemplate = sanitized;
+			case JOIN_GAMEMODE -> this.joinGameModeTemplate = sanitized;
+			case AUTO_WELCOME -> this.autoWelcomeMessage = sanitized;
+		}
+		markDirty();
+	}
+
+	private static ScheduledExecutorService createWriter() {
+		ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+			Thread thread = new Thread(runnable, JoinMessagesMod.MOD_ID + "-config-writer");
+			thread.setDaemon(true);
+			return thread;
+		});
+		executor.setRemoveOnCancelPolicy(true);
+		return executor;
 	}
 
 	public static JoinMessagesConfig defaults() {
@@ -206,61 +483,432 @@ public final class JoinMessagesConfig {
 			true,
 			true,
 			false,
-			"Welcome {player}!",
+			MessageTemplate.DEFAULT_AUTO_WELCOME,
 			MessageColor.YELLOW,
 			GameModeMessagesMode.OFF,
+			JoinGamemodeNotifyMode.OFF,
+			true,
+			List.of(),
+			false,
+			1500,
+			4,
+			false,
 			true,
-			40,
-			JoinGamemodeNotifyMode.OFF
+			WatchlistMode.OFF,
+			List.of(),
+			MessageTemplate.DEFAULT_JOIN,
+			MessageTemplate.DEFAULT_LEAVE,
+			MessageTemplate.DEFAULT_GAMEMODE_CHANGE,
+			MessageTemplate.DEFAULT_JOIN_GAMEMODE
 		);
 	}
 
-	private static String sanitizeAutoWelcomeMessage(String message) {
-		if (message == null || message.isBlank()) {
-			return "Welcome {player}!";
+	private static List<PatternPack> sanitizePatternPacks(List<SerializedPatternPack> packs) {
+		if (packs == null) {
+			return List.of();
 		}
-		return message.trim();
+		List<PatternPack> sanitized = new ArrayList<>();
+		for (SerializedPatternPack pack : packs) {
+			if (pack == null) {
+				continue;
+			}
+			List<String> servers = sanitizeStrings(pack.servers);
+			if (servers.isEmpty()) {
+				continue;
+			}
+			String name = pack.name == null || pack.name.isBlank() ? servers.get(0) : pack.name.trim();
+			List<String> keywords = sanitizeStrings(pack.keywords);
+			int maxKeywords = ChatAnnouncementClassifier.maxCustomKeywords(pack.includeDefaultPatterns);
+			if (keywords.size() > maxKeywords) {
+				JoinMessagesMod.LOGGER.warn(
+					"Pattern pack '{}' lists {} keywords but at most {} are supported; ignoring the rest.",
+					name,
+					keywords.size(),
+					maxKeywords
+				);
+				keywords = keywords.subList(0, maxKeywords);
+			}
+			sanitized.add(new PatternPack(
+				name,
+				servers,
+				sanitizeStrings(pack.joinPatterns),
+				sanitizeStrings(pack.leavePatterns),
+				sanitizeStrings(pack.welcomePatterns),
+				keywords,
+				pack.includeDefaultPatterns
+			));
+		}
+		return sanitized;
 	}
 
-	private static int sanitizeMaxPlayers(int value) {
-		return Math.max(2, Math.min(500, value));
+	private static List<String> sanitizeStrings(List<String> values) {
+		if (values == null) {
+			return List.of();
+		}
+		List<String> sanitized = new ArrayList<>();
+		for (String value : values) {
+			if (value != null && !value.isBlank()) {
+				sanitized.add(value);
+			}
+		}
+		return List.copyOf(sanitized);
 	}
 
-	public boolean limitGamemodeTrackingByPlayerCount() {
-		return limitGamemodeTrackingByPlayerCount;
+	private static List<String> sanitizeWatchlist(List<String> rules) {
+		Set<String> sanitized = new LinkedHashSet<>();
+		for (String rule : rules) {
+			sanitized.addAll(Watchlist.parseRules(rule));
+		}
+		return List.copyOf(sanitized);
 	}
 
-	public void setLimitGamemodeTrackingByPlayerCount(boolean limitGamemodeTrackingByPlayerCount) {
-		if (this.limitGamemodeTrackingByPlayerCount == limitGamemodeTrackingByPlayerCount) {
-			return;
-		}
-		this.limitGamemodeTrackingByPlayerCount = limitGamemodeTrackingByPlayerCount;
-		save();
+	private static int sanitizeCoalesceWindowMs(int value) {
+		return Math.max(250, Math.min(10000, value));
 	}
 
-	public int gamemodeTrackingMaxPlayers() {
-		return gamemodeTrackingMaxPlayers;
+	private static int sanitizeMaxMessagesPerSecond(int value) {
+		return Math.max(1, Math.min(40, value));
 	}
 
-	public void setGamemodeTrackingMaxPlayers(int gamemodeTrackingMaxPlayers) {
-		int sanitized = sanitizeMaxPlayers(gamemodeTrackingMaxPlayers);
-		if (this.gamemodeTrackingMaxPlayers == sanitized) {
-			return;
+	private static String sanitizeTemplate(String template, MessageTemplate.Kind kind) {
+		if (template == null || template.isBlank()) {
+			return kind.defaultSource();
 		}
-		this.gamemodeTrackingMaxPlayers = sanitized;
-		save();
+		return template.trim();
 	}
 
 	public JoinGamemodeNotifyMode joinGamemodeNotifyMode() {
-		return joinGamemodeNotifyMode;
+		return snapshot.joinGamemodeNotifyMode();
 	}
 
-	public void setJoinGamemodeNotifyMode(JoinGamemodeNotifyMode joinGamemodeNotifyMode) {
+	public synchronized void setJoinGamemodeNotifyMode(JoinGamemodeNotifyMode joinGamemodeNotifyMode) {
 		if (this.joinGamemodeNotifyMode == joinGamemodeNotifyMode) {
 			return;
 		}
 		this.joinGamemodeNotifyMode = joinGamemodeNotifyMode;
-		save();
+		markDirty();
+	}
+
+	public boolean eventDrivenRosterTracking() {
+		return snapshot.eventDrivenRosterTracking();
+	}
+
+	public synchronized void setEventDrivenRosterTracking(boolean eventDrivenRosterTracking) {
+		if (this.eventDrivenRosterTracking == eventDrivenRosterTracking) {
+			return;
+		}
+		this.eventDrivenRosterTracking = eventDrivenRosterTracking;
+		markDirty();
+	}
+
+	public List<PatternPack> patternPacks() {
+		return snapshot.patternPacks();
+	}
+
+	public boolean coalesceJoinStorms() {
+		return snapshot.coalesceJoinStorms();
+	}
+
+	public synchronized void setCoalesceJoinStorms(boolean coalesceJoinStorms) {
+		if (this.coalesceJoinStorms == coalesceJoinStorms) {
+			return;
+		}
+		this.coalesceJoinStorms = coalesceJoinStorms;
+		markDirty();
+	}
+
+	public int coalesceWindowMs() {
+		return snapshot.coalesceWindowMs();
+	}
+
+	public int maxMessagesPerSecond() {
+		return snapshot.maxMessagesPerSecond();
+	}
+
+	public boolean recordSessionTraces() {
+		return snapshot.recordSessionTraces();
+	}
+
+	public synchronized void setRecordSessionTraces(boolean recordSessionTraces) {
+		if (this.recordSessionTraces == recordSessionTraces) {
+			return;
+		}
+		this.recordSessionTraces = recordSessionTraces;
+		markDirty();
+	}
+
+	public boolean playerHistoryNotes() {
+		return snapshot.playerHistoryNotes();
+	}
+
+	public synchronized void setPlayerHistoryNotes(boolean playerHistoryNotes) {
+		if (this.playerHistoryNotes == playerHistoryNotes) {
+			return;
+		}
+		this.playerHistoryNotes = playerHistoryNotes;
+		markDirty();
+	}
+
+	public WatchlistMode watchlistMode() {
+		return snapshot.watchlistMode();
+	}
+
+	public synchronized void setWatchlistMode(WatchlistMode watchlistMode) {
+		if (this.watchlistMode == watchlistMode) {
+			return;
+		}
+		this.watchlistMode = watchlistMode;
+		markDirty();
+	}
+
+	public List<String> watchlist() {
+		return snapshot.watchlist();
+	}
+
+	public synchronized void setWatchlist(List<String> watchlist) {
+		List<String> sanitized = sanitizeWatchlist(watchlist);
+		if (this.watchlist.equals(sanitized)) {
+			return;
+		}
+		this.watchlist = sanitized;
+		markDirty();
+	}
+
+	public synchronized List<String> addWatchlistRules(String rules) {
+		List<String> added = Watchlist.parseRules(rules);
+		added.removeAll(this.watchlist);
+		if (added.isEmpty()) {
+			return added;
+		}
+		List<String> updated = new ArrayList<>(this.watchlist);
+		updated.addAll(added);
+		this.watchlist = List.copyOf(updated);
+		markDirty();
+		return added;
+	}
+
+	public synchronized List<String> removeWatchlistRules(String rules) {
+		List<String> removed = Watchlist.parseRules(rules);
+		removed.retainAll(this.watchlist);
+		if (removed.isEmpty()) {
+			return removed;
+		}
+		List<String> updated = new ArrayList<>(this.watchlist);
+		updated.removeAll(removed);
+		this.watchlist = List.copyOf(updated);
+		markDirty();
+		return removed;
+	}
+
+	public static final class Snapshot implements JoinTrackingEngine.Settings {
+		private static final String PREFIX = "[JoinMessages] ";
+
+		private final boolean enabled;
+		private final boolean showPrefix;
+		private final boolean suppressIfServerMessage;
+		private final boolean autoWelcomeEnabled;
+		private final MessageTemplate autoWelcomeTemplate;
+		private final MessageColor messageColor;
+		private final GameModeMessagesMode gameModeMessagesMode;
+		private final JoinGamemodeNotifyMode joinGamemodeNotifyMode;
+		private final boolean eventDrivenRosterTracking;
+		private final List<PatternPack> patternPacks;
+		private final boolean coalesceJoinStorms;
+		private final int coalesceWindowMs;
+		private final int maxMessagesPerSecond;
+		private final boolean recordSessionTraces;
+		private final boolean playerHistoryNotes;
+		private final WatchlistMode watchlistMode;
+		private final List<String> watchlist;
+		private final Watchlist compiledWatchlist;
+		private final MessageTemplate joinTemplate;
+		private final MessageTemplate leaveTemplate;
+		private final MessageTemplate gameModeChangeTemplate;
+		private final MessageTemplate joinGameModeTemplate;
+		private final String prefix;
+		private final Style messageStyle;
+		private final int joinNotifyGameModes;
+		private final int gameModeChangeGameModes;
+
+		private Snapshot(JoinMessagesConfig config) {
+			this.enabled = config.enabled;
+			this.showPrefix = config.showPrefix;
+			this.suppressIfServerMessage = config.suppressIfServerMessage;
+			this.autoWelcomeEnabled = config.autoWelcomeEnabled;
+			this.autoWelcomeTemplate = MessageTemplate.compile(config.autoWelcomeMessage);
+			this.messageColor = config.messageColor;
+			this.gameModeMessagesMode = config.gameModeMessagesMode;
+			this.joinGamemodeNotifyMode = config.joinGamemodeNotifyMode;
+			this.eventDrivenRosterTracking = config.eventDrivenRosterTracking;
+			this.patternPacks = config.patternPacks;
+			this.coalesceJoinStorms = config.coalesceJoinStorms;
+			this.coalesceWindowMs = config.coalesceWindowMs;
+			this.maxMessagesPerSecond = config.maxMessagesPerSecond;
+			this.recordSessionTraces = config.recordSessionTraces;
+			this.playerHistoryNotes = config.playerHistoryNotes;
+			this.watchlistMode = config.watchlistMode;
+			this.watchlist = config.watchlist;
+			this.compiledWatchlist = watchlist.isEmpty() ? Watchlist.EMPTY : Watchlist.compile(watchlist);
+			this.joinTemplate = MessageTemplate.compile(config.joinMessageTemplate);
+			this.leaveTemplate = MessageTemplate.compile(config.leaveMessageTemplate);
+			this.gameModeChangeTemplate = MessageTemplate.compile(config.gameModeChangeTemplate);
+			this.joinGameModeTemplate = MessageTemplate.compile(config.joinGameModeTemplate);
+			this.prefix = showPrefix ? PREFIX : "";
+			this.messageStyle = Style.EMPTY.applyFormat(messageColor.formatting());
+			this.joinNotifyGameModes = joinGamemodeNotifyMode.gameModeMask();
+			this.gameModeChangeGameModes = gameModeMessagesMode.gameModeMask();
+		}
+
+		@Override
+		public boolean enabled() {
+			return enabled;
+		}
+
+		public boolean showPrefix() {
+			return showPrefix;
+		}
+
+		@Override
+		public boolean suppressIfServerMessage() {
+			return suppressIfServerMessage;
+		}
+
+		@Override
+		public boolean autoWelcomeEnabled() {
+			return autoWelcomeEnabled;
+		}
+
+		public String autoWelcomeMessage() {
+			return autoWelcomeTemplate.source();
+		}
+
+		@Override
+		public MessageTemplate autoWelcomeTemplate() {
+			return autoWelcomeTemplate;
+		}
+
+		public MessageColor messageColor() {
+			return messageColor;
+		}
+
+		public GameModeMessagesMode gameModeMessagesMode() {
+			return gameModeMessagesMode;
+		}
+
+		public JoinGamemodeNotifyMode joinGamemodeNotifyMode() {
+			return joinGamemodeNotifyMode;
+		}
+
+		@Override
+		public boolean eventDrivenRosterTracking() {
+			return eventDrivenRosterTracking;
+		}
+
+		@Override
+		public List<PatternPack> patternPacks() {
+			return patternPacks;
+		}
+
+		@Override
+		public boolean coalesceJoinStorms() {
+			return coalesceJoinStorms;
+		}
+
+		@Override
+		public int coalesceWindowMs() {
+			return coalesceWindowMs;
+		}
+
+		@Override
+		public int maxMessagesPerSecond() {
+			return maxMessagesPerSecond;
+		}
+
+		public boolean recordSessionTraces() {
+			return recordSessionTraces;
+		}
+
+		@Override
+		public boolean playerHistoryNotes() {
+			return playerHistoryNotes;
+		}
+
+		public WatchlistMode watchlistMode() {
+			return watchlistMode;
+		}
+
+		public List<String> watchlist() {
+			return watchlist;
+		}
+
+		@Override
+		public boolean watches(String normalizedName) {
+			return switch (watchlistMode) {
+				case OFF -> true;
+				case ALLOW -> compiledWatchlist.matches(normalizedName);
+				case DENY -> !compiledWatchlist.matches(normalizedName);
+			};
+		}
+
+		@Override
+		public MessageTemplate joinTemplate() {
+			return joinTemplate;
+		}
+
+		@Override
+		public MessageTemplate leaveTemplate() {
+			return leaveTemplate;
+		}
+
+		@Override
+		public MessageTemplate gameModeChangeTemplate() {
+			return gameModeChangeTemplate;
+		}
+
+		@Override
+		public MessageTemplate joinGameModeTemplate() {
+			return joinGameModeTemplate;
+		}
+
+		MessageTemplate template(MessageTemplate.Kind kind) {
+			return switch (kind) {
+				case JOIN -> joinTemplate;
+				case LEAVE -> leaveTemplate;
+				case GAMEMODE_CHANGE -> gameModeChangeTemplate;
+				case JOIN_GAMEMODE -> joinGameModeTemplate;
+				case AUTO_WELCOME -> autoWelcomeTemplate;
+			};
+		}
+
+		public String prefix() {
+			return prefix;
+		}
+
+		public Style messageStyle() {
+			return messageStyle;
+		}
+
+		@Override
+		public boolean announcesGameModeChangeTo(int gameModeId) {
+			return containsGameMode(gameModeChangeGameModes, gameModeId);
+		}
+
+		@Override
+		public boolean notifiesJoinGameMode(int gameModeId) {
+			return containsGameMode(joinNotifyGameModes, gameModeId);
+		}
+
+		private static boolean containsGameMode(int mask, int gameModeId) {
+			return gameModeId >= 0 && gameModeId < Integer.SIZE && (mask & (1 << gameModeId)) != 0;
+		}
+
+		static int gameModeMask(GameType... gameTypes) {
+			int mask = 0;
+			for (GameType gameType : gameTypes) {
+				mask |= 1 << gameType.getId();
+			}
+			return mask;
+		}
 	}
 
 	public enum MessageColor {
@@ -303,19 +951,25 @@ public final class JoinMessagesConfig {
 
 	public enum GameModeMessagesMode {
 		OFF("Off"),
-		SPECTATOR_ONLY("Only Spectator Messages"),
-		ALL("All Gamemode Messages");
+		SPECTATOR_ONLY("Only Spectator Messages", GameType.SPECTATOR),
+		ALL("All Gamemode Messages", GameType.values());
 
 		private final String label;
+		private final int gameModeMask;
 
-		GameModeMessagesMode(String label) {
+		GameModeMessagesMode(String label, GameType... gameTypes) {
 			this.label = label;
+			this.gameModeMask = Snapshot.gameModeMask(gameTypes);
 		}
 
 		public String label() {
 			return label;
 		}
 
+		int gameModeMask() {
+			return gameModeMask;
+		}
+
 		public GameModeMessagesMode next() {
 			GameModeMessagesMode[] values = values();
 			int nextIndex = (this.ordinal() + 1) % values.length;
@@ -335,24 +989,64 @@ public final class JoinMessagesConfig {
 		}
 	}
 
+	public enum WatchlistMode {
+		OFF("Off"),
+		ALLOW("Only listed players"),
+		DENY("All except listed");
+
+		private final String label;
+
+		WatchlistMode(String label) {
+			this.label = label;
+		}
+
+		public String label() {
+			return label;
+		}
+
+		public WatchlistMode next() {
+			WatchlistMode[] values = values();
+			int nextIndex = (this.ordinal() + 1) % values.length;
+			return values[nextIndex];
+		}
+
+		public static WatchlistMode fromName(String name) {
+			if (name == null || name.isBlank()) {
+				return OFF;
+			}
+			for (WatchlistMode mode : values()) {
+				if (mode.name().equalsIgnoreCase(name)) {
+					return mode;
+				}
+			}
+			return OFF;
+		}
+	}
+
 	public enum JoinGamemodeNotifyMode {
 		OFF("Off"),
-		CREATIVE("Creative"),
-		SURVIVAL("Survival"),
-		ADVENTURE("Adventure"),
-		SPECTATOR("Spectator"),
-		ALL("All");
+		CREATIVE("Creative", GameType.CREATIVE),
+		SURVIVAL("Survival", GameType.SURVIVAL),
+		ADVENTURE("Adventure", GameType.ADVENTURE),
+		SPECTATOR("Spectator", GameType.SPECTATOR),
+		ALL("All", GameType.values());
 
 		private final String label;
+		private final int gameModeMask;
 
-		JoinGamemodeNotifyMode(String label) {
+		JoinGamemodeNotifyMode(String label, GameType... gameTypes) {
 			this.label = label;
+			this.gameModeMask = Snapshot.gameModeMask(gameTypes);
 		}
 
 		public String label() {
 			return label;
 		}
 
+		int gameModeMask() {
+			return gameModeMask;
+		}
+
 		public JoinGamemodeNotifyMode next() {
 			JoinGamemodeNotifyMode[] values = values();
 			int nextIndex = (this.ordinal() + 1) % values.length;
@@ -377,11 +1071,44 @@ public final class JoinMessagesConfig {
 		boolean showPrefix = true;
 		boolean suppressIfServerMessage = true;
 		boolean autoWelcomeEnabled = false;
-		String autoWelcomeMessage = "Welcome {player}!";
+		String autoWelcomeMessage = MessageTemplate.DEFAULT_AUTO_WELCOME;
 		String messageColor = MessageColor.YELLOW.name();
 		String gameModeMessagesMode = GameModeMessagesMode.OFF.name();
-		boolean limitGamemodeTrackingByPlayerCount = true;
-		int gamemodeTrackingMaxPlayers = 40;
 		String joinGamemodeNotifyMode = JoinGamemodeNotifyMode.ALL.name();
+		boolean eventDrivenRosterTracking = true;
+		List<SerializedPatternPack> patternPacks = new ArrayList<>();
+		boolean coalesceJoinStorms = false;
+		int coalesceWindowMs = 1500;
+		int maxMessagesPerSecond = 4;
+		boolean recordSessionTraces = false;
+		boolean playerHistoryNotes = true;
+		String watchlistMode = WatchlistMode.OFF.name();
+		List<String> watchlist = new ArrayList<>();
+		String joinMessageTemplate = MessageTemplate.DEFAULT_JOIN;
+		String leaveMessageTemplate = MessageTemplate.DEFAULT_LEAVE;
+		String gameModeChangeTemplate = MessageTemplate.DEFAULT_GAMEMODE_CHANGE;
+		String joinGameModeTemplate = MessageTemplate.DEFAULT_JOIN_GAMEMODE;
+	}
+
+	private static final class SerializedPatternPack {
+		String name = "";
+		List<String> servers = new ArrayList<>();
+		List<String> joinPatterns = new ArrayList<>();
+		List<String> leavePatterns = new ArrayList<>();
+		List<String> welcomePatterns = new ArrayList<>();
+		List<String> keywords = new ArrayList<>();
+		boolean includeDefaultPatterns = true;
+
+		private static SerializedPatternPack from(PatternPack pack) {
+			SerializedPatternPack data = new SerializedPatternPack();
+			data.name = pack.name();
+			data.servers = new ArrayList<>(pack.servers());
+			data.joinPatterns = new ArrayList<>(pack.joinPatterns());
+			data.leavePatterns = new ArrayList<>(pack.leavePatterns());
+			data.welcomePatterns = new ArrayList<>(pack.welcomePatterns());
+			data.keywords = new ArrayList<>(pack.keywords());
+			data.includeDefaultPatterns = pack.includeDefaultPatterns();
+			return data;
+		}
 	}
 }
@@ -15,11 +15,15 @@ public class JoinMessagesConfigScreen extends Screen {
 	private Button suppressButton;
 	private Button colorButton;
 	private Button gamemodeMessagesButton;
-	private Button limitGamemodeTrackingButton;
 	private Button joinGamemodeNotifyButton;
+	private Button rosterTrackingButton;
+	private Button coalesceButton;
+	private Button traceButton;
+	private Button historyNotesButton;
+	private Button watchlistModeButton;
+	private EditBox watchlistField;
 	private Button autoWelcomeEnabledButton;
 	private EditBox autoWelcomeMessageField;
-	private EditBox gamemodeTrackingMaxPlayersField;
 
 	public JoinMessagesConfigScreen(Screen parent, JoinMessagesConfig config) {
 		super(Component.literal("Join Messages Config"));
@@ -72,48 +76,70 @@ public class JoinMessagesConfigScreen extends Screen {
 		this.addRenderableWidget(this.gamemodeMessagesButton);
 		updateGamemodeMessagesButtonText();
 
-		this.limitGamemodeTrackingButton = Button.builder(Component.empty(), button -> {
-			config.setLimitGamemodeTrackingByPlayerCount(!config.limitGamemodeTrackingByPlayerCount());
-			updateLimitGamemodeTrackingButtonText();
-		}).bounds(rightX, startY, columnWidth, 20).build();
-		this.addRenderableWidget(this.limitGamemodeTrackingButton);
-		updateLimitGamemodeTrackingButtonText();
-
-		this.gamemodeTrackingMaxPlayersField = new EditBox(this.font, rightX, startY + rowHeight, columnWidth, 20, Component.literal("Max players for tracking"));
-		this.gamemodeTrackingMaxPlayersField.setMaxLength(3);
-		this.gamemodeTrackingMaxPlayersField.setValue(Integer.toString(config.gamemodeTrackingMaxPlayers()));
-		this.gamemodeTrackingMaxPlayersField.setResponder(value -> {
-			if (value == null || value.isBlank()) {
-				return;
-			}
-			try {
-				config.setGamemodeTrackingMaxPlayers(Integer.parseInt(value.trim()));
-			} catch (NumberFormatException ignored) {
-			}
-		});
-		this.addRenderableWidget(this.gamemodeTrackingMaxPlayersField);
-
 		this.joinGamemodeNotifyButton = Button.builder(Component.empty(), button -> {
 			config.setJoinGamemodeNotifyMode(config.joinGamemodeNotifyMode().next());
 			updateJoinGamemodeNotifyButtonText();
-		}).bounds(rightX, startY + (rowHeight * 2), columnWidth, 20).build();
+		}).bounds(rightX, startY, columnWidth, 20).build();
 		this.addRenderableWidget(this.joinGamemodeNotifyButton);
 		updateJoinGamemodeNotifyButtonText();
 
 		this.autoWelcomeEnabledButton = Button.builder(Component.empty(), button -> {
 			config.setAutoWelcomeEnabled(!config.autoWelcomeEnabled());
 			updateAutoWelcomeEnabledButtonText();
-		}).bounds(rightX, startY + (rowHeight * 3), columnWidth, 20).build();
+		}).bounds(rightX, startY + rowHeight, columnWidth, 20).build();
 		this.addRenderableWidget(this.autoWelcomeEnabledButton);
 		updateAutoWelcomeEnabledButtonText();
 
-		this.autoWelcomeMessageField = new EditBox(this.font, rightX, startY + (rowHeight * 4), columnWidth, 20, Component.literal("Auto welcome message"));
+		this.autoWelcomeMessageField = new EditBox(this.font, rightX, startY + (rowHeight * 2), columnWidth, 20, Component.literal("Auto welcome message"));
 		this.autoWelcomeMessageField.setMaxLength(256);
 		this.autoWelcomeMessageField.setValue(config.autoWelcomeMessage());
 		this.autoWelcomeMessageField.setResponder(config::setAutoWelcomeMessage);
 		this.addRenderableWidget(this.autoWelcomeMessageField);
 
-		int bottomRowY = startY + (rowHeight * 6);
+		this.rosterTrackingButton = Button.builder(Component.empty(), button -> {
+			config.setEventDrivenRosterTracking(!config.eventDrivenRosterTracking());
+			updateRosterTrackingButtonText();
+		}).bounds(rightX, startY + (rowHeight * 3), columnWidth, 20).build();
+		this.addRenderableWidget(this.rosterTrackingButton);
+		updateRosterTrackingButtonText();
+
+		this.coalesceButton = Button.builder(Component.empty(), button -> {
+			config.setCoalesceJoinStorms(!config.coalesceJoinStorms());
+			updateCoalesceButtonText();
+		}).bounds(rightX, startY + (rowHeight * 4), columnWidth, 20).build();
+		this.addRenderableWidget(this.coalesceButton);
+		updateCoalesceButtonText();
+
+		this.traceButton = Button.builder(Component.empty(), button -> {
+			config.setRecordSessionTraces(!config.recordSessionTraces());
+			updateTraceButtonText();
+		}).bounds(leftX, startY + (rowHeight * 5), columnWidth, 20).build();
+		this.addRenderableWidget(this.traceButton);
+		updateTraceButtonText();
+
+		this.historyNotesButton = Button.builder(Component.empty(), button -> {
+			config.setPlayerHistoryNotes(!config.playerHistoryNotes());
+			updateHistoryNotesButtonText();
+		}).bounds(rightX, startY + (rowHeight * 5), columnWidth, 20).build();
+		this.addRenderableWidget(this.historyNotesButton);
+		updateHistoryNotesButtonText();
+
+		this.watchlistModeButton = Button.builder(Component.empty(), button -> {
+			config.setWatchlistMode(config.watchlistMode().next());
+			updateWatchlistModeButtonText();
+		}).bounds(leftX, startY + (rowHeight * 6), columnWidth, 20).build();
+		this.addRenderableWidget(this.watchlistModeButton);
+		updateWatchlistModeButtonText();
+
+		this.watchlistField = new EditBox(this.font, rightX, startY + (rowHeight * 6), columnWidth, 20, Component.literal("Watchlist rules"));
+		String watchlist = String.join(", ", config.watchlist());
+		this.watchlistField.setMaxLength(watchlist.length() + 1024);
+		this.watchlistField.setValue(watchlist);
+		this.watchlistField.setHint(Component.literal("steve, admin_*, *bot"));
+		this.watchlistField.setResponder(value -> config.setWatchlist(Watchlist.parseRules(value)));
+		this.addRenderableWidget(this.watchlistField);
+
+		int bottomRowY = startY + (rowHeight * 7);
 
 		this.addRenderableWidget(Button.builder(Component.literal("Save"), button -> {
 			config.save();
@@ -162,8 +188,24 @@ public class JoinMessagesConfigScreen extends Screen {
 		this.gamemodeMessagesButton.setMessage(Component.literal(padded("Gamemode messages: " + config.gameModeMessagesMode().label())));
 	}
 
-	private void updateLimitGamemodeTrackingButtonText() {
-		this.limitGamemodeTrackingButton.setMessage(Component.literal(padded("Track gamemodes below player cap: " + (config.limitGamemodeTrackingByPlayerCount() ? "ON" : "OFF"))));
+	private void updateRosterTrackingButtonText() {
+		this.rosterTrackingButton.setMessage(Component.literal(padded("Roster updates: " + (config.eventDrivenRosterTracking() ? "Packet events" : "Every tick"))));
+	}
+
+	private void updateCoalesceButtonText() {
+		this.coalesceButton.setMessage(Component.literal(padded("Group join/leave bursts: " + (config.coalesceJoinStorms() ? "ON" : "OFF"))));
+	}
+
+	private void updateTraceButtonText() {
+		this.traceButton.setMessage(Component.literal(padded("Record session traces: " + (config.recordSessionTraces() ? "ON" : "OFF"))));
+	}
+
+	private void updateHistoryNotesButtonText() {
+		this.historyNotesButton.setMessage(Component.literal(padded("Join history notes: " + (config.playerHistoryNotes() ? "ON" : "OFF"))));
+	}
+
+	private void updateWatchlistModeButtonText() {
+		this.watchlistModeButton.setMessage(Component.literal(padded("Watchlist: " + config.watchlistMode().label())));
 	}
 
 	private void updateJoinGamemodeNotifyButtonText() {
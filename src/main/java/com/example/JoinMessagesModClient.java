@@ -1,20 +1,27 @@
 package com.example;
 
 import com.mojang.blaze3d.platform.InputConstants;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
 import com.mojang.brigadier.arguments.StringArgumentType;
 import com.mojang.brigadier.builder.LiteralArgumentBuilder;
 import com.mojang.brigadier.builder.RequiredArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.suggestion.Suggestions;
+import com.mojang.brigadier.suggestion.SuggestionsBuilder;
 import net.fabricmc.api.ClientModInitializer;
 import net.fabricmc.fabric.api.client.command.v2.ClientCommandRegistrationCallback;
 import net.fabricmc.fabric.api.client.command.v2.FabricClientCommandSource;
 import net.fabricmc.fabric.api.client.message.v1.ClientReceiveMessageEvents;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientLifecycleEvents;
 import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
 import net.fabricmc.fabric.api.client.keymapping.v1.KeyMappingHelper;
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
 import net.fabricmc.loader.api.FabricLoader;
 import net.minecraft.client.KeyMapping;
 import net.minecraft.client.Minecraft;
+import net.minecraft.client.multiplayer.ClientPacketListener;
 import net.minecraft.client.multiplayer.PlayerInfo;
+import net.minecraft.client.multiplayer.ServerData;
 import net.minecraft.network.chat.Component;
 import net.minecraft.resources.Identifier;
 import net.minecraft.world.level.GameType;
@@ -22,40 +29,42 @@ import org.lwjgl.glfw.GLFW;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.lang.reflect.Method;
-import java.lang.reflect.InvocationTargetException;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
-import java.util.Map;
-import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
 
 public class JoinMessagesModClient implements ClientModInitializer {
 	private static final Logger LOGGER = LoggerFactory.getLogger(JoinMessagesMod.MOD_ID + "-client");
-	private static final Pattern JOIN_PATTERN = Pattern.compile("\\b([A-Za-z0-9_]{3,16})\\b\\s+(joined|connected)\\b", Pattern.CASE_INSENSITIVE);
-	private static final Pattern LEAVE_PATTERN = Pattern.compile("\\b([A-Za-z0-9_]{3,16})\\b\\s+(left|quit|disconnected)\\b", Pattern.CASE_INSENSITIVE);
-	private static final Pattern SERVER_WELCOME_PATTERN = Pattern.compile("^Welcome\\s+([A-Za-z0-9_]{3,16})\\s+to\\s+the\\s+server!$");
-	private static final long SERVER_ANNOUNCEMENT_WINDOW_MS = 5000L;
-	private static final long AUTO_WELCOME_DEDUP_WINDOW_MS = 3000L;
-	private static final long PENDING_MESSAGE_DELAY_MS = 1200L;
+	private static final ReflectiveAccessor PROFILE_NAME_ACCESSOR = ReflectiveAccessor.getter("GameProfile name", String.class, "name", "getName");
+	private static final ReflectiveAccessor SEND_CHAT_ACCESSOR = ReflectiveAccessor.consumer("send chat", String.class, "sendChat", "sendChatMessage");
+	private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss", Locale.ROOT);
+	private static final DateTimeFormatter HISTORY_TIMESTAMP = DateTimeFormatter.ofPattern("HH:mm:ss", Locale.ROOT);
+	private static final int HISTORY_PAGE_SIZE = 10;
+	private static final int MAX_PLAYER_SUGGESTIONS = 50;
+	private static final int MAX_LISTED_PLAYERS = 100;
 	private static final KeyMapping.Category KEY_CATEGORY = KeyMapping.Category.register(
 		Identifier.parse(JoinMessagesMod.MOD_ID + ":general")
 	);
 
-	private final Set<String> knownPlayers = new HashSet<>();
-	private final Map<String, Long> recentServerJoinAnnouncements = new HashMap<>();
-	private final Map<String, Long> recentServerLeaveAnnouncements = new HashMap<>();
-	private final Map<String, GameType> knownPlayerGameModes = new HashMap<>();
-	private final Map<String, PendingEvent> pendingJoinMessages = new HashMap<>();
-	private final Map<String, PendingEvent> pendingLeaveMessages = new HashMap<>();
-	private final Map<String, Long> recentAutoWelcomeTriggers = new HashMap<>();
-	private int pendingServerJoinSignals = 0;
-	private int pendingServerLeaveSignals = 0;
 	private final JoinMessagesConfig config = JoinMessagesConfig.getInstance();
-	private boolean seededForCurrentServer = false;
+	private final JoinTrackingEngine engine = new JoinTrackingEngine(System::currentTimeMillis, config::snapshot, new ClientOutput());
+	private final JoinTrackingEngine.RosterSource listedPlayers = this::forEachListedPlayer;
+	private final Consumer<PlayerInfo> listedPlayerVisitor = this::visitListedPlayer;
+	private ObjIntConsumer<String> listedPlayerObserver;
+	private final ChatPrefilter chatPrefilter = new ChatPrefilter(ChatAnnouncementClassifier.DEFAULT);
+	private AnnouncementPatternPack prefilterPack = AnnouncementPatternPack.DEFAULT;
+	private SessionTraceRecorder traceRecorder;
+	private PlayerHistoryStore history;
 	private KeyMapping openConfigKey;
 
 	@Override
@@ -81,53 +90,198 @@ public class JoinMessagesModClient implements ClientModInitializer {
 		));
 
 		ClientPlayConnectionEvents.JOIN.register((handler, sender, client) -> {
-			knownPlayers.clear();
-			recentServerJoinAnnouncements.clear();
-			recentServerLeaveAnnouncements.clear();
-			knownPlayerGameModes.clear();
-			pendingJoinMessages.clear();
-			pendingLeaveMessages.clear();
-			recentAutoWelcomeTriggers.clear();
-			pendingServerJoinSignals = 0;
-			pendingServerLeaveSignals = 0;
-			seededForCurrentServer = false;
+			ServerData server = client.getCurrentServer();
+			String serverAddress = server != null ? server.ip : null;
+			startSessionTrace(serverAddress);
+			openPlayerHistory(serverAddress);
+			engine.connect(serverAddress, client.player != null ? client.player.getGameProfile().name() : null);
+			RosterChangeSignal.markChanged();
+			updatePrefilter();
 		});
 
 		ClientPlayConnectionEvents.DISCONNECT.register((handler, client) -> {
-			knownPlayers.clear();
-			recentServerJoinAnnouncements.clear();
-			recentServerLeaveAnnouncements.clear();
-			knownPlayerGameModes.clear();
-			pendingJoinMessages.clear();
-			pendingLeaveMessages.clear();
-			recentAutoWelcomeTriggers.clear();
-			pendingServerJoinSignals = 0;
-			pendingServerLeaveSignals = 0;
-			seededForCurrentServer = false;
+			engine.disconnect();
+			stopSessionTrace();
+			closePlayerHistory();
+			RosterChangeSignal.markChanged();
+			logPrefilterStats();
 		});
 
 		ClientReceiveMessageEvents.GAME.register((message, overlay) -> {
-			recordServerJoinLeaveAnnouncement(message);
-			maybeSendAutoWelcomeReply(Minecraft.getInstance(), message);
+			long startNanos = System.nanoTime();
+			handleIncomingMessage(message);
+			engine.stats().record(HotPathStats.Probe.GAME_MESSAGE, startNanos);
 		});
 		ClientReceiveMessageEvents.CHAT.register((message, signedMessage, sender, params, receptionTimestamp) -> {
-			recordServerJoinLeaveAnnouncement(message);
-			maybeSendAutoWelcomeReply(Minecraft.getInstance(), message);
+			long startNanos = System.nanoTime();
+			handleIncomingMessage(message);
+			engine.stats().record(HotPathStats.Probe.CHAT_MESSAGE, startNanos);
 		});
 
 		ClientTickEvents.END_CLIENT_TICK.register(this::onClientTick);
-		ClientCommandRegistrationCallback.EVENT.register((dispatcher, registryAccess) ->
+		ClientLifecycleEvents.CLIENT_STOPPING.register(client -> {
+			stopSessionTrace();
+			closePlayerHistory();
+			PlayerHistoryStore.awaitPendingWrites();
+			config.flush();
+		});
+		config.startWatching();
+		ClientCommandRegistrationCallback.EVENT.register((dispatcher, registryAccess) -> {
 			dispatcher.register(
 				LiteralArgumentBuilder.<FabricClientCommandSource>literal("gamemodecheck")
 					.then(RequiredArgumentBuilder.<FabricClientCommandSource, String>argument("player", StringArgumentType.word())
+						.suggests(this::suggestOnlinePlayers)
+						.executes(context -> executeGamemodeCheck(context.getSource(), StringArgumentType.getString(context, "player")))
+					)
+			);
+			dispatcher.register(
+				LiteralArgumentBuilder.<FabricClientCommandSource>literal("gamemodelist")
+					.executes(context -> executeGamemodeCounts(context.getSource()))
+					.then(RequiredArgumentBuilder.<FabricClientCommandSource, String>argument("gamemode", StringArgumentType.word())
 						.suggests((context, builder) -> {
-							knownPlayers.forEach(builder::suggest);
+							for (int id = 0; id < JoinTrackingEngine.gameModeCount(); id++) {
+								String name = JoinTrackingEngine.formatGameModeName(id).toLowerCase(Locale.ROOT);
+								if (name.startsWith(builder.getRemainingLowerCase())) {
+									builder.suggest(name);
+								}
+							}
 							return builder.buildFuture();
 						})
-						.executes(context -> executeGamemodeCheck(context.getSource(), StringArgumentType.getString(context, "player")))
+						.executes(context -> executeGamemodeList(context.getSource(), StringArgumentType.getString(context, "gamemode")))
 					)
+			);
+			dispatcher.register(
+				LiteralArgumentBuilder.<FabricClientCommandSource>literal("joinmessages")
+					.then(LiteralArgumentBuilder.<FabricClientCommandSource>literal("stats")
+						.executes(context -> executeStats(context.getSource()))
+						.then(LiteralArgumentBuilder.<FabricClientCommandSource>literal("reset")
+							.executes(context -> executeStatsReset(context.getSource())))
+						.then(LiteralArgumentBuilder.<FabricClientCommandSource>literal("dump")
+							.executes(context -> executeStatsDump(context.getSource())))
+					)
+					.then(historyCommand())
+					.then(watchCommand())
+					.then(templateCommand())
+					.then(LiteralArgumentBuilder.<FabricClientCommandSource>literal("seen")
+						.then(RequiredArgumentBuilder.<FabricClientCommandSource, String>argument("player", StringArgumentType.word())
+							.executes(context -> executeSeen(context.getSource(), StringArgumentType.getString(context, "player")))
+						)
+					)
+			);
+		});
+	}
+
+	private LiteralArgumentBuilder<FabricClientCommandSource> historyCommand() {
+		return LiteralArgumentBuilder.<FabricClientCommandSource>literal("history")
+			.executes(this::executeHistory)
+			.then(historyPage())
+			.then(LiteralArgumentBuilder.<FabricClientCommandSource>literal("player")
+				.then(RequiredArgumentBuilder.<FabricClientCommandSource, String>argument("player", StringArgumentType.word())
+					.suggests(this::suggestOnlinePlayers)
+					.executes(this::executeHistory)
+					.then(historyPage())
+					.then(historyTypeFilter())
+				)
 			)
-		);
+			.then(historyTypeFilter());
+	}
+
+	private LiteralArgumentBuilder<FabricClientCommandSource> watchCommand() {
+		return LiteralArgumentBuilder.<FabricClientCommandSource>literal("watch")
+			.executes(context -> executeWatchShow(context.getSource()))
+			.then(LiteralArgumentBuilder.<FabricClientCommandSource>literal("mode")
+				.then(RequiredArgumentBuilder.<FabricClientCommandSource, String>argument("mode", StringArgumentType.word())
+					.suggests((context, builder) -> {
+						for (JoinMessagesConfig.WatchlistMode mode : JoinMessagesConfig.WatchlistMode.values()) {
+							String name = mode.name().toLowerCase(Locale.ROOT);
+							if (name.startsWith(builder.getRemainingLowerCase())) {
+								builder.suggest(name);
+							}
+						}
+						return builder.buildFuture();
+					})
+					.executes(context -> executeWatchMode(context.getSource(), StringArgumentType.getString(context, "mode")))
+				)
+			)
+			.then(LiteralArgumentBuilder.<FabricClientCommandSource>literal("add")
+				.then(RequiredArgumentBuilder.<FabricClientCommandSource, String>argument("rules", StringArgumentType.greedyString())
+					.executes(context -> executeWatchAdd(context.getSource(), StringArgumentType.getString(context, "rules")))
+				)
+			)
+			.then(LiteralArgumentBuilder.<FabricClientCommandSource>literal("remove")
+				.then(RequiredArgumentBuilder.<FabricClientCommandSource, String>argument("rules", StringArgumentType.greedyString())
+					.suggests((context, builder) -> {
+						for (String rule : config.watchlist()) {
+							if (rule.startsWith(builder.getRemainingLowerCase())) {
+								builder.suggest(rule);
+							}
+						}
+						return builder.buildFuture();
+					})
+					.executes(context -> executeWatchRemove(context.getSource(), StringArgumentType.getString(context, "rules")))
+				)
+			)
+			.then(LiteralArgumentBuilder.<FabricClientCommandSource>literal("clear")
+				.executes(context -> executeWatchClear(context.getSource()))
+			);
+	}
+
+	private LiteralArgumentBuilder<FabricClientCommandSource> templateCommand() {
+		return LiteralArgumentBuilder.<FabricClientCommandSource>literal("template")
+			.executes(context -> executeTemplateList(context.getSource()))
+			.then(RequiredArgumentBuilder.<FabricClientCommandSource, String>argument("message", StringArgumentType.word())
+				.suggests((context, builder) -> {
+					for (MessageTemplate.Kind kind : MessageTemplate.Kind.values()) {
+						if (kind.commandName().startsWith(builder.getRemainingLowerCase())) {
+							builder.suggest(kind.commandName());
+						}
+					}
+					return builder.buildFuture();
+				})
+				.executes(context -> executeTemplateShow(context.getSource(), StringArgumentType.getString(context, "message")))
+				.then(LiteralArgumentBuilder.<FabricClientCommandSource>literal("set")
+					.then(RequiredArgumentBuilder.<FabricClientCommandSource, String>argument("template", StringArgumentType.greedyString())
+						.executes(context -> executeTemplateSet(
+							context.getSource(),
+							StringArgumentType.getString(context, "message"),
+							StringArgumentType.getString(context, "template")
+						))
+					)
+				)
+				.then(LiteralArgumentBuilder.<FabricClientCommandSource>literal("reset")
+					.executes(context -> executeTemplateSet(context.getSource(), StringArgumentType.getString(context, "message"), null))
+				)
+			);
+	}
+
+	private LiteralArgumentBuilder<FabricClientCommandSource> historyTypeFilter() {
+		return LiteralArgumentBuilder.<FabricClientCommandSource>literal("type")
+			.then(RequiredArgumentBuilder.<FabricClientCommandSource, String>argument("type", StringArgumentType.word())
+				.suggests((context, builder) -> {
+					for (String filter : EventHistory.TYPE_FILTERS) {
+						if (filter.startsWith(builder.getRemainingLowerCase())) {
+							builder.suggest(filter);
+						}
+					}
+					return builder.buildFuture();
+				})
+				.executes(this::executeHistory)
+				.then(historyPage())
+			);
+	}
+
+	private RequiredArgumentBuilder<FabricClientCommandSource, Integer> historyPage() {
+		return RequiredArgumentBuilder.<FabricClientCommandSource, Integer>argument("page", IntegerArgumentType.integer(1))
+			.executes(this::executeHistory);
+	}
+
+	private CompletableFuture<Suggestions> suggestOnlinePlayers(CommandContext<FabricClientCommandSource> context, SuggestionsBuilder builder) {
+		List<PlayerRoster.Entry> matches = new ArrayList<>();
+		engine.roster().findByPrefix(builder.getRemaining(), MAX_PLAYER_SUGGESTIONS, matches);
+		for (PlayerRoster.Entry entry : matches) {
+			builder.suggest(entry.name());
+		}
+		return builder.buildFuture();
 	}
 
 	private void onClientTick(Minecraft client) {
@@ -138,382 +292,439 @@ public class JoinMessagesModClient implements ClientModInitializer {
 		if (client.level == null || client.getConnection() == null || client.player == null) {
 			return;
 		}
-		pruneOldAnnouncements();
-		pruneOldAutoWelcomeTriggers();
-		flushPendingMessages(client);
-
-		Set<String> currentPlayers = new HashSet<>();
-		Map<String, GameType> currentPlayerGameModes = new HashMap<>();
-		for (PlayerInfo entry : client.getConnection().getListedOnlinePlayers()) {
-			String profileName = getProfileName(entry);
-			if (profileName != null && !profileName.isBlank()) {
-				currentPlayers.add(profileName);
-				currentPlayerGameModes.put(normalizePlayerName(profileName), entry.getGameMode());
-			}
-		}
+		engine.tick(listedPlayers, RosterChangeSignal.consumeChanged());
+		updatePrefilter();
+	}
 
-		if (!seededForCurrentServer) {
-			knownPlayers.clear();
-			knownPlayers.addAll(currentPlayers);
-			knownPlayerGameModes.clear();
-			boolean gamemodeTrackingActive = shouldTrackGamemodes(currentPlayers.size());
-			if (gamemodeTrackingActive) {
-				knownPlayerGameModes.putAll(currentPlayerGameModes);
-			}
-			if (config.enabled() && gamemodeTrackingActive) {
-				notifyExistingPlayersGamemodesOnJoin(client, currentPlayers, currentPlayerGameModes);
-			}
-			seededForCurrentServer = true;
+	private void forEachListedPlayer(ObjIntConsumer<String> observer) {
+		ClientPacketListener connection = Minecraft.getInstance().getConnection();
+		if (connection == null) {
 			return;
 		}
-
-		Set<String> joinedPlayers = currentPlayers.stream()
-			.filter(name -> !containsIgnoreCase(knownPlayers, name))
-			.collect(Collectors.toSet());
-		Set<String> leftPlayers = knownPlayers.stream()
-			.filter(name -> !containsIgnoreCase(currentPlayers, name))
-			.collect(Collectors.toSet());
-		boolean gamemodeTrackingActive = shouldTrackGamemodes(currentPlayers.size());
-
-		if (config.enabled()) {
-			for (String joined : joinedPlayers) {
-				handlePlayerEvent(client, joined, true);
-				if (gamemodeTrackingActive) {
-					maybeSendJoinGamemodeNotification(client, joined, currentPlayerGameModes.get(normalizePlayerName(joined)));
-				}
-			}
-			for (String left : leftPlayers) {
-				handlePlayerEvent(client, left, false);
-			}
-			if (gamemodeTrackingActive) {
-				handleGameModeChanges(client, currentPlayers, currentPlayerGameModes);
-			}
-		} else {
-			pendingJoinMessages.clear();
-			pendingLeaveMessages.clear();
-			pendingServerJoinSignals = 0;
-			pendingServerLeaveSignals = 0;
-		}
-
-		knownPlayers.clear();
-		knownPlayers.addAll(currentPlayers);
-		knownPlayerGameModes.clear();
-		if (gamemodeTrackingActive) {
-			knownPlayerGameModes.putAll(currentPlayerGameModes);
-		}
+		listedPlayerObserver = observer;
+		connection.getListedOnlinePlayers().forEach(listedPlayerVisitor);
+		listedPlayerObserver = null;
 	}
 
-	private void sendModMessage(Minecraft client, String message) {
-		String prefix = config.showPrefix() ? "[JoinMessages] " : "";
-		Component text = Component.literal(prefix + message).withStyle(config.messageColor().formatting());
-		client.player.sendSystemMessage(text);
+	private void visitListedPlayer(PlayerInfo entry) {
+		listedPlayerObserver.accept(getProfileName(entry), toGameModeId(entry.getGameMode()));
 	}
 
-	private void handlePlayerEvent(Minecraft client, String playerName, boolean joining) {
-		if (!config.suppressIfServerMessage()) {
-			sendModMessage(client, playerName + (joining ? " joined the game" : " left the game"));
+	private void handleIncomingMessage(Component message) {
+		int prefilterResult = chatPrefilter.test(message);
+		if (engine.recordingTrace()) {
+			engine.recordIncomingMessage(message.getString(), prefilterResult != ChatPrefilter.IRRELEVANT);
+		}
+		if (prefilterResult == ChatPrefilter.IRRELEVANT) {
 			return;
 		}
 
-		if (shouldSuppressForServerAnnouncement(playerName, joining)) {
+		TranslatableAnnouncementDetector.Announcement announcement = (prefilterResult & ChatPrefilter.HAS_ANNOUNCEMENT_KEY) != 0
+			? TranslatableAnnouncementDetector.detect(message)
+			: null;
+		if (announcement != null) {
+			engine.onServerAnnouncement(announcement.playerName(), announcement.joining());
 			return;
 		}
 
-		Map<String, PendingEvent> pending = joining ? pendingJoinMessages : pendingLeaveMessages;
-		pending.put(normalizePlayerName(playerName), new PendingEvent(playerName, System.currentTimeMillis()));
+		engine.onChatText(message.getString());
 	}
 
-	private void handleGameModeChanges(Minecraft client, Set<String> currentPlayers, Map<String, GameType> currentPlayerGameModes) {
-		JoinMessagesConfig.GameModeMessagesMode mode = config.gameModeMessagesMode();
-		if (mode == JoinMessagesConfig.GameModeMessagesMode.OFF) {
-			return;
+	private void updatePrefilter() {
+		AnnouncementPatternPack pack = engine.activePatternPack();
+		if (pack != prefilterPack) {
+			prefilterPack = pack;
+			chatPrefilter.use(pack.prefilterClassifier());
 		}
-		String localPlayerName = normalizePlayerName(client.player.getGameProfile().name());
-
-		for (String playerName : currentPlayers) {
-			String normalized = normalizePlayerName(playerName);
-			if (normalized.equals(localPlayerName)) {
-				continue;
-			}
-			GameType previousMode = knownPlayerGameModes.get(normalized);
-			GameType currentMode = currentPlayerGameModes.get(normalized);
-
-			if (previousMode == null || currentMode == null || previousMode == currentMode) {
-				continue;
-			}
+	}
 
-			if (mode == JoinMessagesConfig.GameModeMessagesMode.SPECTATOR_ONLY && currentMode != GameType.SPECTATOR) {
-				continue;
-			}
+	private void startSessionTrace(String serverAddress) {
+		stopSessionTrace();
+		if (!config.snapshot().recordSessionTraces()) {
+			return;
+		}
 
-			sendModMessage(
-				client,
-				playerName + " changed gamemode: " + formatGameTypeName(previousMode) + " -> " + formatGameTypeName(currentMode)
-			);
+		Path path = FabricLoader.getInstance().getGameDir()
+			.resolve(JoinMessagesMod.MOD_ID)
+			.resolve("traces")
+			.resolve(FILE_TIMESTAMP.format(LocalDateTime.now()) + "-" + fileSafeServerName(serverAddress) + ".jmtrace");
+		try {
+			traceRecorder = SessionTraceRecorder.open(path);
+			engine.recordTo(traceRecorder);
+			LOGGER.info("Recording session trace to {}", path);
+		} catch (IOException e) {
+			LOGGER.warn("Failed to start session trace at {}", path, e);
 		}
 	}
 
-	private void maybeSendJoinGamemodeNotification(Minecraft client, String playerName, GameType gameType) {
-		JoinMessagesConfig.JoinGamemodeNotifyMode mode = config.joinGamemodeNotifyMode();
-		if (mode == JoinMessagesConfig.JoinGamemodeNotifyMode.OFF || gameType == null) {
+	private void stopSessionTrace() {
+		if (traceRecorder == null) {
 			return;
 		}
+		engine.recordTo(null);
+		traceRecorder.close();
+		traceRecorder = null;
+	}
 
-		if (mode != JoinMessagesConfig.JoinGamemodeNotifyMode.ALL && !matchesGamemodeFilter(mode, gameType)) {
-			return;
+	private void openPlayerHistory(String serverAddress) {
+		closePlayerHistory();
+		Path directory = FabricLoader.getInstance().getGameDir()
+			.resolve(JoinMessagesMod.MOD_ID)
+			.resolve("history")
+			.resolve(fileSafeServerName(serverAddress));
+		try {
+			history = PlayerHistoryStore.open(directory);
+			engine.rememberPlayersIn(history);
+			LOGGER.debug("Loaded {} known players from {}", history.size(), directory);
+		} catch (IOException e) {
+			LOGGER.warn("Failed to open player history at {}", directory, e);
 		}
-
-		sendModMessage(client, playerName + " is in " + formatGameTypeName(gameType));
 	}
 
-	private void notifyExistingPlayersGamemodesOnJoin(Minecraft client, Set<String> currentPlayers, Map<String, GameType> currentPlayerGameModes) {
-		String localPlayerName = normalizePlayerName(client.player.getGameProfile().name());
-		for (String playerName : currentPlayers) {
-			if (normalizePlayerName(playerName).equals(localPlayerName)) {
-				continue;
-			}
-			maybeSendJoinGamemodeNotification(client, playerName, currentPlayerGameModes.get(normalizePlayerName(playerName)));
+	private void closePlayerHistory() {
+		if (history == null) {
+			return;
 		}
+		engine.rememberPlayersIn(null);
+		history.close();
+		history = null;
 	}
 
-	private void flushPendingMessages(Minecraft client) {
-		long now = System.currentTimeMillis();
+	private static String fileSafeServerName(String serverAddress) {
+		return serverAddress != null ? serverAddress.replaceAll("[^A-Za-z0-9.-]", "_") : "local";
+	}
 
-		flushPendingMap(client, pendingJoinMessages, true, now);
-		flushPendingMap(client, pendingLeaveMessages, false, now);
+	private void logPrefilterStats() {
+		long passed = chatPrefilter.passed();
+		long total = passed + chatPrefilter.rejected();
+		if (total > 0L) {
+			LOGGER.info(
+				"Chat pre-filter passed {} of {} messages ({}% rejected before parsing)",
+				passed,
+				total,
+				(chatPrefilter.rejected() * 100L) / total
+			);
+		}
+		chatPrefilter.resetCounters();
 	}
 
-	private void flushPendingMap(Minecraft client, Map<String, PendingEvent> pending, boolean joining, long now) {
-		Set<String> keys = new HashSet<>(pending.keySet());
-		for (String key : keys) {
-			PendingEvent event = pending.get(key);
-			if (event == null) {
-				continue;
-			}
+	private static int toGameModeId(GameType gameType) {
+		return gameType == null ? PlayerRoster.UNKNOWN_GAME_MODE : gameType.getId();
+	}
 
-			if (config.suppressIfServerMessage() && shouldSuppressForServerAnnouncement(event.playerName(), joining)) {
-				pending.remove(key);
-				continue;
-			}
+	private int executeGamemodeCheck(FabricClientCommandSource source, String requestedPlayer) {
+		PlayerRoster roster = engine.roster();
+		PlayerRoster.Entry entry = roster.find(requestedPlayer);
+		String actualName = entry != null ? entry.name() : requestedPlayer;
+		int mode = entry != null ? roster.gameModeId(entry) : PlayerRoster.UNKNOWN_GAME_MODE;
+		if (mode == PlayerRoster.UNKNOWN_GAME_MODE) {
+			source.sendFeedback(Component.literal(actualName + " gamemode is unknown (player missing or hidden)."));
+			return 0;
+		}
 
-			if (config.suppressIfServerMessage() && consumeGenericServerSignal(joining)) {
-				pending.remove(key);
-				continue;
-			}
+		source.sendFeedback(Component.literal(actualName + " is in " + JoinTrackingEngine.formatGameModeName(mode) + "."));
+		return 1;
+	}
 
-			if (!config.suppressIfServerMessage() || (now - event.detectedAtMillis()) >= PENDING_MESSAGE_DELAY_MS) {
-				sendModMessage(client, event.playerName() + (joining ? " joined the game." : " left the game."));
-				pending.remove(key);
-			}
+	private int executeSeen(FabricClientCommandSource source, String requestedPlayer) {
+		if (history == null) {
+			source.sendError(Component.literal("No player history is available for this server."));
+			return 0;
 		}
+		PlayerHistoryStore.Visit visit = new PlayerHistoryStore.Visit();
+		if (!history.lookup(requestedPlayer, visit)) {
+			source.sendFeedback(Component.literal(requestedPlayer + " has never been seen on this server."));
+			return 0;
+		}
+
+		long now = System.currentTimeMillis();
+		PlayerRoster.Entry online = engine.roster().find(requestedPlayer);
+		String name = online != null ? online.name() : requestedPlayer;
+		String lastSeen = online != null ? "online now" : "last seen " + PlayerHistoryStore.formatElapsed(now - visit.lastSeenMillis());
+		source.sendFeedback(Component.literal(
+			name + ": " + lastSeen + ", first seen " + PlayerHistoryStore.formatElapsed(now - visit.firstSeenMillis())
+				+ ", " + visit.visits() + (visit.visits() == 1 ? " visit." : " visits.")
+		));
+		return 1;
 	}
 
-	private boolean consumeGenericServerSignal(boolean joining) {
-		if (joining) {
-			if (pendingServerJoinSignals > 0) {
-				pendingServerJoinSignals--;
-				return true;
+	private int executeGamemodeCounts(FabricClientCommandSource source) {
+		PlayerRoster roster = engine.roster();
+		StringBuilder counts = new StringBuilder("Players by gamemode: ");
+		for (int id = 0; id < JoinTrackingEngine.gameModeCount(); id++) {
+			if (id > 0) {
+				counts.append(", ");
 			}
-			return false;
+			counts.append(JoinTrackingEngine.formatGameModeName(id)).append(' ').append(roster.gameModeCount(id));
 		}
-
-		if (pendingServerLeaveSignals > 0) {
-			pendingServerLeaveSignals--;
-			return true;
+		int unknown = roster.gameModeCount(PlayerRoster.UNKNOWN_GAME_MODE);
+		if (unknown > 0) {
+			counts.append(", Unknown ").append(unknown);
 		}
-		return false;
+		source.sendFeedback(Component.literal(counts.toString()));
+		return 1;
 	}
 
-	private boolean shouldSuppressForServerAnnouncement(String playerName, boolean joining) {
-		if (!config.suppressIfServerMessage()) {
-			return false;
+	private int executeGamemodeList(FabricClientCommandSource source, String requestedGameMode) {
+		int gameModeId = JoinTrackingEngine.parseGameModeName(requestedGameMode);
+		if (gameModeId == PlayerRoster.UNKNOWN_GAME_MODE) {
+			source.sendError(Component.literal("Unknown gamemode '" + requestedGameMode + "'."));
+			return 0;
 		}
-		String normalizedName = normalizePlayerName(playerName);
-		Map<String, Long> source = joining ? recentServerJoinAnnouncements : recentServerLeaveAnnouncements;
-		Long when = source.get(normalizedName);
-		return when != null && (System.currentTimeMillis() - when) <= SERVER_ANNOUNCEMENT_WINDOW_MS;
-	}
 
-	private void recordServerJoinLeaveAnnouncement(Component message) {
-		String content = message.getString();
-		if (content == null || content.isBlank()) {
-			return;
+		PlayerRoster roster = engine.roster();
+		int count = roster.gameModeCount(gameModeId);
+		String gameModeName = JoinTrackingEngine.formatGameModeName(gameModeId);
+		if (count == 0) {
+			source.sendFeedback(Component.literal("No players are in " + gameModeName + "."));
+			return 0;
 		}
 
-		long now = System.currentTimeMillis();
-		String normalizedContent = content.toLowerCase(Locale.ROOT);
-		Matcher joinMatcher = JOIN_PATTERN.matcher(content);
-		int joinMatches = 0;
-		while (joinMatcher.find()) {
-			joinMatches++;
-			String playerName = normalizePlayerName(joinMatcher.group(1));
-			recentServerJoinAnnouncements.put(playerName, now);
-			pendingJoinMessages.remove(playerName);
+		List<String> names = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			names.add(roster.playerInGameMode(gameModeId, i).name());
 		}
-		if (joinMatches == 0 && containsJoinPhrase(normalizedContent)) {
-			joinMatches = 1;
+		names.sort(String.CASE_INSENSITIVE_ORDER);
+		int listed = Math.min(count, MAX_LISTED_PLAYERS);
+		String text = gameModeName + " (" + count + "): " + String.join(", ", names.subList(0, listed));
+		if (count > listed) {
+			text += ", +" + (count - listed) + " more";
 		}
-		pendingServerJoinSignals += joinMatches;
+		source.sendFeedback(Component.literal(text));
+		return 1;
+	}
 
-		Matcher leaveMatcher = LEAVE_PATTERN.matcher(content);
-		int leaveMatches = 0;
-		while (leaveMatcher.find()) {
-			leaveMatches++;
-			String playerName = normalizePlayerName(leaveMatcher.group(1));
-			recentServerLeaveAnnouncements.put(playerName, now);
-			pendingLeaveMessages.remove(playerName);
-		}
-		if (leaveMatches == 0 && containsLeavePhrase(normalizedContent)) {
-			leaveMatches = 1;
-		}
-		pendingServerLeaveSignals += leaveMatches;
+	private int executeWatchShow(FabricClientCommandSource source) {
+		List<String> rules = config.watchlist();
+		String summary = "Watchlist: " + config.watchlistMode().label();
+		source.sendFeedback(Component.literal(rules.isEmpty()
+			? summary + " (no rules)"
+			: summary + " (" + rules.size() + (rules.size() == 1 ? " rule): " : " rules): ") + String.join(", ", rules)));
+		return 1;
 	}
 
-	private void maybeSendAutoWelcomeReply(Minecraft client, Component message) {
-		if (client == null || client.player == null || client.getConnection() == null) {
-			return;
+	private int executeWatchMode(FabricClientCommandSource source, String requestedMode) {
+		JoinMessagesConfig.WatchlistMode mode = null;
+		for (JoinMessagesConfig.WatchlistMode candidate : JoinMessagesConfig.WatchlistMode.values()) {
+			if (candidate.name().equalsIgnoreCase(requestedMode)) {
+				mode = candidate;
+			}
 		}
-		if (!config.autoWelcomeEnabled()) {
-			return;
+		if (mode == null) {
+			source.sendError(Component.literal("Unknown watchlist mode '" + requestedMode + "'. Use off, allow or deny."));
+			return 0;
 		}
+		config.setWatchlistMode(mode);
+		source.sendFeedback(Component.literal("Watchlist mode set to " + mode.label() + "."));
+		return 1;
+	}
 
-		String content = message.getString();
-		if (content == null) {
-			return;
+	private int executeWatchAdd(FabricClientCommandSource source, String rules) {
+		List<String> added = config.addWatchlistRules(rules);
+		if (added.isEmpty()) {
+			source.sendError(Component.literal("'" + rules.trim() + "' is already on the watchlist."));
+			return 0;
 		}
+		source.sendFeedback(Component.literal("Added '" + String.join("', '", added) + "' to the watchlist."));
+		return 1;
+	}
 
-		Matcher matcher = SERVER_WELCOME_PATTERN.matcher(content.trim());
-		if (!matcher.matches()) {
-			return;
+	private int executeWatchRemove(FabricClientCommandSource source, String rules) {
+		List<String> removed = config.removeWatchlistRules(rules);
+		if (removed.isEmpty()) {
+			source.sendError(Component.literal("'" + rules.trim() + "' is not on the watchlist."));
+			return 0;
 		}
+		source.sendFeedback(Component.literal("Removed '" + String.join("', '", removed) + "' from the watchlist."));
+		return 1;
+	}
 
-		String playerName = matcher.group(1);
-		if (playerName.equalsIgnoreCase(client.player.getGameProfile().name())) {
-			return;
+	private int executeWatchClear(FabricClientCommandSource source) {
+		int cleared = config.watchlist().size();
+		config.setWatchlist(List.of());
+		source.sendFeedback(Component.literal("Cleared " + cleared + (cleared == 1 ? " watchlist rule." : " watchlist rules.")));
+		return 1;
+	}
+
+	private int executeTemplateList(FabricClientCommandSource source) {
+		for (MessageTemplate.Kind kind : MessageTemplate.Kind.values()) {
+			source.sendFeedback(Component.literal(kind.commandName() + ": " + config.messageTemplate(kind)));
 		}
-		if (wasRecentlyAutoWelcomed(playerName)) {
-			return;
+		StringBuilder placeholders = new StringBuilder("Placeholders:");
+		for (MessageTemplate.Placeholder placeholder : MessageTemplate.Placeholder.values()) {
+			placeholders.append(" {").append(placeholder.key()).append('}');
 		}
+		source.sendFeedback(Component.literal(placeholders.toString()));
+		return 1;
+	}
 
-		String outgoingMessage = config.autoWelcomeMessage().replace("{player}", playerName);
-		if (outgoingMessage.isBlank()) {
-			return;
+	private int executeTemplateShow(FabricClientCommandSource source, String requestedMessage) {
+		MessageTemplate.Kind kind = MessageTemplate.Kind.fromCommandName(requestedMessage);
+		if (kind == null) {
+			source.sendError(Component.literal("Unknown message '" + requestedMessage + "'. Use one of: " + templateNames()));
+			return 0;
 		}
+		source.sendFeedback(Component.literal(kind.commandName() + ": " + config.messageTemplate(kind)));
+		return 1;
+	}
 
-		if (sendChatMessage(client, outgoingMessage)) {
-			recentAutoWelcomeTriggers.put(normalizePlayerName(playerName), System.currentTimeMillis());
+	private int executeTemplateSet(FabricClientCommandSource source, String requestedMessage, String template) {
+		MessageTemplate.Kind kind = MessageTemplate.Kind.fromCommandName(requestedMessage);
+		if (kind == null) {
+			source.sendError(Component.literal("Unknown message '" + requestedMessage + "'. Use one of: " + templateNames()));
+			return 0;
 		}
+		config.setMessageTemplate(kind, template);
+		source.sendFeedback(Component.literal(kind.commandName() + " template set to: " + config.messageTemplate(kind)));
+		return 1;
 	}
 
-	private boolean sendChatMessage(Minecraft client, String message) {
-		Object connection = client.getConnection();
-		if (connection == null) {
-			return false;
+	private static String templateNames() {
+		StringBuilder names = new StringBuilder();
+		for (MessageTemplate.Kind kind : MessageTemplate.Kind.values()) {
+			if (names.length() > 0) {
+				names.append(", ");
+			}
+			names.append(kind.commandName());
 		}
+		return names.toString();
+	}
 
-		try {
-			Method sendChat = connection.getClass().getMethod("sendChat", String.class);
-			sendChat.invoke(connection, message);
-			return true;
-		} catch (NoSuchMethodException ignored) {
-		} catch (IllegalAccessException | InvocationTargetException e) {
-			LOGGER.warn("Failed to send auto-welcome chat via sendChat()", e);
-			return false;
+	private int executeHistory(CommandContext<FabricClientCommandSource> context) {
+		FabricClientCommandSource source = context.getSource();
+		EventHistory events = engine.events();
+		String player = optionalArgument(context, "player", String.class, null);
+		String type = optionalArgument(context, "type", String.class, null);
+		int page = optionalArgument(context, "page", Integer.class, 1);
+
+		int nameId = EventHistory.NO_PLAYER;
+		if (player != null) {
+			nameId = events.find(player);
+			if (nameId == EventHistory.NO_PLAYER) {
+				source.sendFeedback(Component.literal("No recorded events for " + player + "."));
+				return 0;
+			}
 		}
-
-		try {
-			Method sendChatMessage = connection.getClass().getMethod("sendChatMessage", String.class);
-			sendChatMessage.invoke(connection, message);
-			return true;
-		} catch (NoSuchMethodException ignored) {
-		} catch (IllegalAccessException | InvocationTargetException e) {
-			LOGGER.warn("Failed to send auto-welcome chat via sendChatMessage()", e);
-			return false;
+		int typeMask = EventHistory.ALL_TYPES;
+		if (type != null) {
+			typeMask = EventHistory.typeFilter(type);
+			if (typeMask == 0) {
+				source.sendError(Component.literal("Unknown event type '" + type + "'. Use one of: " + String.join(", ", EventHistory.TYPE_FILTERS)));
+				return 0;
+			}
 		}
 
-		LOGGER.warn("Failed to send auto-welcome chat: no compatible send chat method found.");
-		return false;
-	}
-
-	private boolean wasRecentlyAutoWelcomed(String playerName) {
-		Long when = recentAutoWelcomeTriggers.get(normalizePlayerName(playerName));
-		return when != null && (System.currentTimeMillis() - when) <= AUTO_WELCOME_DEDUP_WINDOW_MS;
-	}
+		List<String> lines = new ArrayList<>(HISTORY_PAGE_SIZE);
+		int matches = events.query(nameId, typeMask, (page - 1) * HISTORY_PAGE_SIZE, HISTORY_PAGE_SIZE,
+			(timestampMillis, playerName, eventType, oldGameMode, newGameMode) ->
+				lines.add(formatHistoryEvent(timestampMillis, playerName, eventType, oldGameMode, newGameMode)));
+		if (matches == 0) {
+			source.sendFeedback(Component.literal("No matching events."));
+			return 0;
+		}
+		int pages = (matches + HISTORY_PAGE_SIZE - 1) / HISTORY_PAGE_SIZE;
+		if (page > pages) {
+			source.sendError(Component.literal("Page " + page + " is past the end (" + pages + " pages)."));
+			return 0;
+		}
 
-	private void pruneOldAnnouncements() {
-		long threshold = System.currentTimeMillis() - SERVER_ANNOUNCEMENT_WINDOW_MS;
-		recentServerJoinAnnouncements.entrySet().removeIf(entry -> entry.getValue() < threshold);
-		recentServerLeaveAnnouncements.entrySet().removeIf(entry -> entry.getValue() < threshold);
+		source.sendFeedback(Component.literal("Event history page " + page + "/" + pages + " (" + matches + " events):"));
+		for (String line : lines) {
+			source.sendFeedback(Component.literal(line));
+		}
+		return 1;
 	}
 
-	private void pruneOldAutoWelcomeTriggers() {
-		long threshold = System.currentTimeMillis() - AUTO_WELCOME_DEDUP_WINDOW_MS;
-		recentAutoWelcomeTriggers.entrySet().removeIf(entry -> entry.getValue() < threshold);
+	private static String formatHistoryEvent(long timestampMillis, String playerName, EventHistory.Type type, int oldGameMode, int newGameMode) {
+		String time = HISTORY_TIMESTAMP.format(LocalDateTime.ofInstant(Instant.ofEpochMilli(timestampMillis), ZoneId.systemDefault()));
+		String line = "[" + time + "] " + playerName + " " + type.description();
+		if (type == EventHistory.Type.GAMEMODE) {
+			line += ": " + JoinTrackingEngine.formatGameModeName(oldGameMode) + " -> " + JoinTrackingEngine.formatGameModeName(newGameMode);
+		}
+		return line;
 	}
 
-	private static String normalizePlayerName(String name) {
-		return name.toLowerCase(Locale.ROOT);
+	private static <T> T optionalArgument(CommandContext<FabricClientCommandSource> context, String name, Class<T> type, T fallback) {
+		try {
+			return context.getArgument(name, type);
+		} catch (IllegalArgumentException e) {
+			return fallback;
+		}
 	}
 
-	private static boolean containsJoinPhrase(String content) {
-		return content.contains(" joined the game")
-			|| content.contains(" joined the server")
-			|| content.contains(" connected");
+	private int executeStats(FabricClientCommandSource source) {
+		for (String line : statsReport()) {
+			source.sendFeedback(Component.literal(line));
+		}
+		return 1;
 	}
 
-	private static boolean containsLeavePhrase(String content) {
-		return content.contains(" left the game")
-			|| content.contains(" left the server")
-			|| content.contains(" disconnected")
-			|| content.contains(" quit");
+	private int executeStatsReset(FabricClientCommandSource source) {
+		engine.stats().reset();
+		chatPrefilter.resetCounters();
+		source.sendFeedback(Component.literal("JoinMessages stats reset."));
+		return 1;
 	}
 
-	private static String formatGameTypeName(GameType gameType) {
-		String name = gameType.getName();
-		if (name == null || name.isBlank()) {
-			return "Unknown";
+	private int executeStatsDump(FabricClientCommandSource source) {
+		Path path = FabricLoader.getInstance().getGameDir()
+			.resolve(JoinMessagesMod.MOD_ID)
+			.resolve("stats-" + FILE_TIMESTAMP.format(LocalDateTime.now()) + ".txt");
+		try {
+			engine.stats().dump(path, prefilterReport());
+		} catch (IOException e) {
+			LOGGER.warn("Failed to write stats to {}", path, e);
+			source.sendError(Component.literal("Failed to write stats: " + e.getMessage()));
+			return 0;
 		}
-		return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+		source.sendFeedback(Component.literal("JoinMessages stats written to " + path));
+		return 1;
 	}
 
-	private boolean shouldTrackGamemodes(int onlinePlayers) {
-		if (!config.limitGamemodeTrackingByPlayerCount()) {
-			return true;
-		}
-		return onlinePlayers < config.gamemodeTrackingMaxPlayers();
+	private List<String> statsReport() {
+		List<String> lines = new ArrayList<>(engine.stats().report());
+		lines.addAll(prefilterReport());
+		return lines;
 	}
 
-	private static boolean matchesGamemodeFilter(JoinMessagesConfig.JoinGamemodeNotifyMode mode, GameType gameType) {
-		return switch (mode) {
-			case CREATIVE -> gameType == GameType.CREATIVE;
-			case SURVIVAL -> gameType == GameType.SURVIVAL;
-			case ADVENTURE -> gameType == GameType.ADVENTURE;
-			case SPECTATOR -> gameType == GameType.SPECTATOR;
-			default -> false;
-		};
+	private List<String> prefilterReport() {
+		long passed = chatPrefilter.passed();
+		long rejected = chatPrefilter.rejected();
+		return List.of("Chat pre-filter: " + passed + " passed, " + rejected + " rejected");
 	}
 
-	private int executeGamemodeCheck(FabricClientCommandSource source, String requestedPlayer) {
-		String normalized = normalizePlayerName(requestedPlayer);
-		String actualName = knownPlayers.stream()
-			.filter(name -> normalizePlayerName(name).equals(normalized))
-			.findFirst()
-			.orElse(requestedPlayer);
-		GameType mode = knownPlayerGameModes.get(normalized);
-		if (mode == null) {
-			source.sendFeedback(Component.literal(actualName + " gamemode is unknown (player missing, hidden, or tracking disabled for this server size)."));
-			return 0;
+	private final class ClientOutput implements JoinTrackingEngine.Output {
+		@Override
+		public void showMessage(String message) {
+			Minecraft client = Minecraft.getInstance();
+			if (client.player == null) {
+				return;
+			}
+			long startNanos = System.nanoTime();
+			JoinMessagesConfig.Snapshot settings = config.snapshot();
+			client.player.sendSystemMessage(Component.literal(settings.prefix() + message).withStyle(settings.messageStyle()));
+			engine.stats().record(HotPathStats.Probe.SEND_MESSAGE, startNanos);
 		}
 
-		source.sendFeedback(Component.literal(actualName + " is in " + formatGameTypeName(mode) + "."));
-		return 1;
-	}
-
-	private record PendingEvent(String playerName, long detectedAtMillis) {
-	}
+		@Override
+		public boolean sendChat(String message) {
+			Object connection = Minecraft.getInstance().getConnection();
+			if (connection == null) {
+				return false;
+			}
 
-	private static boolean containsIgnoreCase(Set<String> names, String target) {
-		return names.stream().anyMatch(name -> name.equalsIgnoreCase(target));
+			MethodHandle sendChat = SEND_CHAT_ACCESSOR.resolve(connection);
+			if (sendChat == null) {
+				return false;
+			}
+			try {
+				sendChat.invokeExact(connection, message);
+				return true;
+			} catch (Throwable e) {
+				LOGGER.warn("Failed to send auto-welcome chat", e);
+				return false;
+			}
+		}
 	}
 
 	private String getProfileName(PlayerInfo entry) {
@@ -522,28 +733,15 @@ public class JoinMessagesModClient implements ClientModInitializer {
 			return null;
 		}
 
-		try {
-			Method nameMethod = profile.getClass().getMethod("name");
-			Object name = nameMethod.invoke(profile);
-			if (name instanceof String) {
-				return (String) name;
-			}
-		} catch (NoSuchMethodException ignored) {
-		} catch (IllegalAccessException | InvocationTargetException e) {
-			LOGGER.debug("Could not call GameProfile.name()", e);
+		MethodHandle nameAccessor = PROFILE_NAME_ACCESSOR.resolve(profile);
+		if (nameAccessor == null) {
+			return null;
 		}
-
 		try {
-			Method getNameMethod = profile.getClass().getMethod("getName");
-			Object name = getNameMethod.invoke(profile);
-			if (name instanceof String) {
-				return (String) name;
-			}
-		} catch (NoSuchMethodException ignored) {
-		} catch (IllegalAccessException | InvocationTargetException e) {
-			LOGGER.debug("Could not call GameProfile.getName()", e);
+			return (String) (Object) nameAccessor.invokeExact(profile);
+		} catch (Throwable e) {
+			LOGGER.debug("Could not read GameProfile name", e);
+			return null;
 		}
-
-		return null;
 	}
 }
@@ -43,6 +43,16 @@ public class JoinMessagesModMenu implements ModMenuApi {
 	private static final class ModrinthUpdateChecker implements UpdateChecker {
 		@Override
 		public UpdateInfo checkForUpdates() {
+			TrackerEvents.UpdateCheck checkEvent = TrackerEvents.beginUpdateCheck();
+			UpdateInfo update = checkModrinth(checkEvent);
+			if (checkEvent != null) {
+				checkEvent.updateAvailable = update != null;
+				checkEvent.commit();
+			}
+			return update;
+		}
+
+		private static UpdateInfo checkModrinth(TrackerEvents.UpdateCheck checkEvent) {
 			String currentVersion = FabricLoader.getInstance()
 				.getModContainer(JoinMessagesMod.MOD_ID)
 				.map(container -> container.getMetadata().getVersion().getFriendlyString())
@@ -58,6 +68,9 @@ public class JoinMessagesModMenu implements ModMenuApi {
 					.GET()
 					.build();
 				HttpResponse<String> response = HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
+				if (checkEvent != null) {
+					checkEvent.statusCode = response.statusCode();
+				}
 				if (response.statusCode() != 200) {
 					JoinMessagesMod.LOGGER.warn("Modrinth update check failed with HTTP {}", response.statusCode());
 					return null;
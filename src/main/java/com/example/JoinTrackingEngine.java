@@ -0,0 +1,715 @@
+package com.example;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+
+final class JoinTrackingEngine {
+	private static final Logger LOGGER = LoggerFactory.getLogger(JoinMessagesMod.MOD_ID + "-engine");
+	private static final long SERVER_ANNOUNCEMENT_WINDOW_MS = 5000L;
+	private static final long AUTO_WELCOME_DEDUP_WINDOW_MS = 3000L;
+	private static final long PENDING_MESSAGE_DELAY_MS = 1200L;
+	private static final long DEADLINE_RESOLUTION_MS = 50L;
+	private static final int FALLBACK_ROSTER_SCAN_INTERVAL_TICKS = 100;
+	private static final long HISTORY_NOTE_MIN_ABSENCE_MS = 60L * 60L * 1000L;
+	private static final String[] GAME_MODE_NAMES = {"Survival", "Creative", "Adventure", "Spectator"};
+
+	private final LongSupplier clock;
+	private final Supplier<? extends Settings> settingsSource;
+	private final Output output;
+	private final PlayerRoster roster = new PlayerRoster();
+	private final DeadlineWheel deadlines = new DeadlineWheel(DEADLINE_RESOLUTION_MS);
+	private final MessageCoalescer coalescer = new MessageCoalescer();
+	private final Consumer<String> coalescedOutput;
+	private final ObjIntConsumer<String> rosterObserver = this::observePlayer;
+	private final Map<String, RecentTimestamp> recentServerJoinAnnouncements = new HashMap<>();
+	private final Map<String, RecentTimestamp> recentServerLeaveAnnouncements = new HashMap<>();
+	private final Map<String, PendingEvent> pendingJoinMessages = new LinkedHashMap<>();
+	private final Map<String, PendingEvent> pendingLeaveMessages = new LinkedHashMap<>();
+	private final Map<String, RecentTimestamp> recentAutoWelcomeTriggers = new HashMap<>();
+	private final ChatAnnouncementClassifier.Result classification = new ChatAnnouncementClassifier.Result();
+	private final PatternPackSelector patternPackSelector = new PatternPackSelector();
+	private final HotPathStats stats = new HotPathStats();
+	private final PlayerHistoryStore.Visit previousVisit = new PlayerHistoryStore.Visit();
+	private final EventHistory events = new EventHistory();
+	private final StringBuilder messageBuilder = new StringBuilder(128);
+	private AnnouncementPatternPack activePatternPack = AnnouncementPatternPack.DEFAULT;
+	private List<PatternPack> selectedPatternPacks = List.of();
+	private String serverAddress;
+	private String localPlayerName;
+	private Settings settings;
+	private SessionTraceRecorder traceRecorder;
+	private PlayerHistoryStore history;
+	private int pendingServerJoinSignals = 0;
+	private int pendingServerLeaveSignals = 0;
+	private boolean seededForCurrentServer = false;
+	private int ticksSinceRosterScan = 0;
+
+	JoinTrackingEngine(LongSupplier clock, Supplier<? extends Settings> settingsSource, Output output) {
+		this.clock = clock;
+		this.settingsSource = settingsSource;
+		this.output = output;
+		this.coalescedOutput = output::showMessage;
+		this.settings = settingsSource.get();
+	}
+
+	void connect(String serverAddress, String localPlayerName) {
+		reset();
+		events.clear();
+		this.serverAddress = serverAddress;
+		this.localPlayerName = localPlayerName != null ? normalizePlayerName(localPlayerName) : null;
+		settings = settingsSource.get();
+		selectPatternPack();
+		if (traceRecorder != null) {
+			traceRecorder.connect(clock.getAsLong(), serverAddress, localPlayerName);
+		}
+	}
+
+	void disconnect() {
+		if (traceRecorder != null) {
+			traceRecorder.disconnect(clock.getAsLong());
+		}
+		for (int slot = 0; slot < roster.slotLimit(); slot++) {
+			PlayerRoster.Entry entry = roster.slot(slot);
+			if (entry != null) {
+				recordDeparture(entry);
+			}
+		}
+		reset();
+		serverAddress = null;
+		localPlayerName = null;
+	}
+
+	private void reset() {
+		roster.clear();
+		deadlines.clear();
+		coalescer.clear();
+		recentServerJoinAnnouncements.clear();
+		recentServerLeaveAnnouncements.clear();
+		pendingJoinMessages.clear();
+		pendingLeaveMessages.clear();
+		recentAutoWelcomeTriggers.clear();
+		pendingServerJoinSignals = 0;
+		pendingServerLeaveSignals = 0;
+		seededForCurrentServer = false;
+		ticksSinceRosterScan = 0;
+	}
+
+	void recordTo(SessionTraceRecorder recorder) {
+		traceRecorder = recorder;
+	}
+
+	void rememberPlayersIn(PlayerHistoryStore history) {
+		this.history = history;
+	}
+
+	PlayerHistoryStore history() {
+		return history;
+	}
+
+	EventHistory events() {
+		return events;
+	}
+
+	PlayerRoster roster() {
+		return roster;
+	}
+
+	AnnouncementPatternPack activePatternPack() {
+		return activePatternPack;
+	}
+
+	HotPathStats stats() {
+		return stats;
+	}
+
+	void tick(RosterSource source, boolean rosterChanged) {
+		long startNanos = System.nanoTime();
+		runTick(source, rosterChanged);
+		stats.record(HotPathStats.Probe.TICK, startNanos);
+	}
+
+	private void runTick(RosterSource source, boolean rosterChanged) {
+		settings = settingsSource.get();
+		if (settings.patternPacks() != selectedPatternPacks) {
+			selectPatternPack();
+		}
+		long now = clock.getAsLong();
+		if (traceRecorder != null) {
+			source = traceRecorder.tick(now, rosterChanged, source);
+		}
+		long phaseStart = System.nanoTime();
+		deadlines.advance(now);
+		coalescer.flush(now, settings.maxMessagesPerSecond(), coalescedOutput);
+		stats.record(HotPathStats.Probe.TICK_FLUSH, phaseStart);
+
+		if (seededForCurrentServer && settings.eventDrivenRosterTracking() && !rosterChanged
+			&& ++ticksSinceRosterScan < FALLBACK_ROSTER_SCAN_INTERVAL_TICKS) {
+			return;
+		}
+		ticksSinceRosterScan = 0;
+
+		phaseStart = System.nanoTime();
+		TrackerEvents.RosterDiff diffEvent = TrackerEvents.beginRosterDiff();
+		roster.beginScan();
+		source.forEachPlayer(rosterObserver);
+		roster.endScan();
+
+		if (!seededForCurrentServer) {
+			if (settings.enabled()) {
+				notifyExistingPlayersGamemodes();
+			}
+			recordSeededPlayers();
+			seededForCurrentServer = true;
+			stats.record(HotPathStats.Probe.TICK_SEED, phaseStart);
+			if (diffEvent != null) {
+				diffEvent.players = roster.size();
+				diffEvent.seed = true;
+				diffEvent.commit();
+			}
+			return;
+		}
+		if (diffEvent != null) {
+			diffEvent.players = roster.size();
+			diffEvent.joins = roster.joined().size();
+			diffEvent.leaves = roster.left().size();
+			diffEvent.gameModeChanges = roster.gameModeChanges().size();
+		}
+
+		if (settings.enabled()) {
+			List<PlayerRoster.Entry> joinedPlayers = roster.joined();
+			for (int i = 0; i < joinedPlayers.size(); i++) {
+				PlayerRoster.Entry joined = joinedPlayers.get(i);
+				boolean watched = settings.watches(joined.normalizedName());
+				String historyNote = recordVisit(joined, watched);
+				if (!watched) {
+					skipUnwatchedEvent(true);
+					continue;
+				}
+				handlePlayerEvent(joined, true, historyNote);
+				maybeSendJoinGamemodeNotification(joined.name(), roster.gameModeId(joined));
+			}
+			List<PlayerRoster.Entry> leftPlayers = roster.left();
+			for (int i = 0; i < leftPlayers.size(); i++) {
+				PlayerRoster.Entry left = leftPlayers.get(i);
+				recordDeparture(left);
+				if (!settings.watches(left.normalizedName())) {
+					skipUnwatchedEvent(false);
+					continue;
+				}
+				handlePlayerEvent(left, false, "");
+			}
+			stats.record(HotPathStats.Probe.TICK_DIFF, phaseStart);
+			if (diffEvent != null) {
+				diffEvent.commit();
+			}
+			phaseStart = System.nanoTime();
+			handleGameModeChanges();
+			stats.record(HotPathStats.Probe.TICK_GAMEMODE, phaseStart);
+		} else {
+			List<PlayerRoster.Entry> joinedPlayers = roster.joined();
+			for (int i = 0; i < joinedPlayers.size(); i++) {
+				recordVisit(joinedPlayers.get(i), false);
+			}
+			List<PlayerRoster.Entry> leftPlayers = roster.left();
+			for (int i = 0; i < leftPlayers.size(); i++) {
+				recordDeparture(leftPlayers.get(i));
+			}
+			clearPendingMessages(pendingJoinMessages);
+			clearPendingMessages(pendingLeaveMessages);
+			pendingServerJoinSignals = 0;
+			pendingServerLeaveSignals = 0;
+			stats.record(HotPathStats.Probe.TICK_DIFF, phaseStart);
+			if (diffEvent != null) {
+				diffEvent.commit();
+			}
+		}
+	}
+
+	void onServerAnnouncement(String playerName, boolean joining) {
+		TrackerEvents.ChatClassification classificationEvent = TrackerEvents.beginChatClassification();
+		settings = settingsSource.get();
+		long now = clock.getAsLong();
+		if (traceRecorder != null) {
+			traceRecorder.announcement(now, playerName, joining);
+		}
+		recordServerAnnouncement(playerName, joining, now);
+		if (joining) {
+			pendingServerJoinSignals++;
+		} else {
+			pendingServerLeaveSignals++;
+		}
+		consumeSignalsWithPendingMessages(joining);
+		if (classificationEvent != null) {
+			classificationEvent.matchedType = joining ? "translatable-join" : "translatable-leave";
+			classificationEvent.textLength = playerName.length();
+			classificationEvent.commit();
+		}
+	}
+
+	boolean recordingTrace() {
+		return traceRecorder != null;
+	}
+
+	void recordIncomingMessage(String text, boolean delivered) {
+		if (traceRecorder != null && text != null) {
+			traceRecorder.message(clock.getAsLong(), text, delivered);
+		}
+	}
+
+	boolean classifiesAsAnnouncement(String text) {
+		activePatternPack.classify(text, classification);
+		return !classification.joinNames().isEmpty() || !classification.leaveNames().isEmpty()
+			|| classification.joinPhrase() || classification.leavePhrase() || classification.welcomeName() != null;
+	}
+
+	void onChatText(String content) {
+		if (content == null) {
+			return;
+		}
+		if (traceRecorder != null) {
+			traceRecorder.chat(clock.getAsLong(), content);
+		}
+		if (content.isBlank()) {
+			return;
+		}
+		TrackerEvents.ChatClassification classificationEvent = TrackerEvents.beginChatClassification();
+		settings = settingsSource.get();
+		activePatternPack.classify(content, classification);
+		recordServerJoinLeaveAnnouncement(classification);
+		maybeSendAutoWelcomeReply(classification.welcomeName());
+		if (classificationEvent != null) {
+			classificationEvent.matchedType = matchedType(classification);
+			classificationEvent.textLength = content.length();
+			classificationEvent.commit();
+		}
+	}
+
+	private static String matchedType(ChatAnnouncementClassifier.Result result) {
+		if (!result.joinNames().isEmpty()) {
+			return "join";
+		}
+		if (!result.leaveNames().isEmpty()) {
+			return "leave";
+		}
+		if (result.joinPhrase()) {
+			return "join-phrase";
+		}
+		if (result.leavePhrase()) {
+			return "leave-phrase";
+		}
+		return result.welcomeName() != null ? "welcome" : "none";
+	}
+
+	static String formatGameModeName(int gameModeId) {
+		if (gameModeId < 0 || gameModeId >= GAME_MODE_NAMES.length) {
+			return "Unknown";
+		}
+		return GAME_MODE_NAMES[gameModeId];
+	}
+
+	static int parseGameModeName(String name) {
+		for (int id = 0; id < GAME_MODE_NAMES.length; id++) {
+			if (GAME_MODE_NAMES[id].equalsIgnoreCase(name)) {
+				return id;
+			}
+		}
+		return PlayerRoster.UNKNOWN_GAME_MODE;
+	}
+
+	static int gameModeCount() {
+		return GAME_MODE_NAMES.length;
+	}
+
+	private void observePlayer(String playerName, int gameModeId) {
+		if (playerName != null && !playerName.isBlank()) {
+			roster.observe(playerName, gameModeId);
+		}
+	}
+
+	private void selectPatternPack() {
+		selectedPatternPacks = settings.patternPacks();
+		activePatternPack = patternPackSelector.select(selectedPatternPacks, serverAddress);
+		if (activePatternPack != AnnouncementPatternPack.DEFAULT) {
+			LOGGER.info("Using announcement pattern pack '{}' for this server", activePatternPack.name());
+		}
+	}
+
+	private void handlePlayerEvent(PlayerRoster.Entry entry, boolean joining, String historyNote) {
+		String playerName = entry.name();
+		if (!settings.suppressIfServerMessage()) {
+			recordEvent(playerName, entry.normalizedName(), joining, false);
+			announcePlayerEvent(playerName, renderPlayerEvent(playerName, joining, roster.gameModeId(entry), historyNote), joining);
+			return;
+		}
+
+		if (shouldSuppressForServerAnnouncement(playerName, joining) || consumeGenericServerSignal(joining)) {
+			recordEvent(playerName, entry.normalizedName(), joining, true);
+			return;
+		}
+
+		long now = clock.getAsLong();
+		PendingEvent event = new PendingEvent(playerName, entry.normalizedName(), joining, roster.gameModeId(entry), historyNote);
+		PendingEvent previous = pendingMessages(joining).put(event.normalizedName, event);
+		if (previous != null) {
+			deadlines.cancel(previous);
+		}
+		deadlines.schedule(event, now + PENDING_MESSAGE_DELAY_MS);
+	}
+
+	private void skipUnwatchedEvent(boolean joining) {
+		if (settings.suppressIfServerMessage()) {
+			consumeGenericServerSignal(joining);
+		}
+	}
+
+	private void handleGameModeChanges() {
+		List<PlayerRoster.Entry> changes = roster.gameModeChanges();
+		for (int i = 0; i < changes.size(); i++) {
+			PlayerRoster.Entry entry = changes.get(i);
+			int previousMode = roster.previousGameModeId(entry);
+			int currentMode = roster.gameModeId(entry);
+
+			if (previousMode == PlayerRoster.UNKNOWN_GAME_MODE || entry.normalizedName().equals(localPlayerName)
+				|| !settings.watches(entry.normalizedName())) {
+				continue;
+			}
+			events.record(clock.getAsLong(), entry.name(), entry.normalizedName(), EventHistory.Type.GAMEMODE, previousMode, currentMode);
+			if (!settings.announcesGameModeChangeTo(currentMode)) {
+				continue;
+			}
+
+			output.showMessage(renderMessage(settings.gameModeChangeTemplate(), entry.name(), currentMode, previousMode, ""));
+		}
+	}
+
+	private void maybeSendJoinGamemodeNotification(String playerName, int gameModeId) {
+		if (!settings.notifiesJoinGameMode(gameModeId)) {
+			return;
+		}
+
+		String message = renderMessage(settings.joinGameModeTemplate(), playerName, gameModeId, PlayerRoster.UNKNOWN_GAME_MODE, "");
+		announce(playerName, message, " are in " + formatGameModeName(gameModeId));
+	}
+
+	private void announcePlayerEvent(String playerName, String message, boolean joining) {
+		announce(playerName, message, joining ? " joined" : " left");
+	}
+
+	private void announce(String playerName, String message, String pluralSuffix) {
+		if (settings.coalesceJoinStorms()) {
+			coalescer.add(message, pluralSuffix, playerName, clock.getAsLong(), settings.coalesceWindowMs());
+			return;
+		}
+		output.showMessage(message);
+	}
+
+	private String renderPlayerEvent(String playerName, boolean joining, int gameModeId, String note) {
+		MessageTemplate template = joining ? settings.joinTemplate() : settings.leaveTemplate();
+		return renderMessage(template, playerName, gameModeId, PlayerRoster.UNKNOWN_GAME_MODE, note);
+	}
+
+	private String renderMessage(MessageTemplate template, String playerName, int gameModeId, int oldGameModeId, String note) {
+		messageBuilder.setLength(0);
+		template.render(messageBuilder, playerName, gameModeId, oldGameModeId, roster.size(), clock.getAsLong(), note);
+		return messageBuilder.toString();
+	}
+
+	private String recordVisit(PlayerRoster.Entry entry, boolean annotate) {
+		if (history == null || entry.normalizedName().equals(localPlayerName)) {
+			return "";
+		}
+		long now = clock.getAsLong();
+		history.visit(entry.name(), now, previousVisit);
+		if (!annotate || !settings.playerHistoryNotes()) {
+			return "";
+		}
+		if (!previousVisit.known() || previousVisit.visits() == 0) {
+			return " (first time)";
+		}
+		long absence = now - previousVisit.lastSeenMillis();
+		return absence >= HISTORY_NOTE_MIN_ABSENCE_MS ? " (last seen " + PlayerHistoryStore.formatElapsed(absence) + ")" : "";
+	}
+
+	private void recordDeparture(PlayerRoster.Entry entry) {
+		if (history != null && !entry.normalizedName().equals(localPlayerName)) {
+			history.depart(entry.name(), clock.getAsLong());
+		}
+	}
+
+	private void recordSeededPlayers() {
+		if (history == null) {
+			return;
+		}
+		long now = clock.getAsLong();
+		for (int slot = 0; slot < roster.slotLimit(); slot++) {
+			PlayerRoster.Entry entry = roster.slot(slot);
+			if (entry != null && !entry.normalizedName().equals(localPlayerName)) {
+				history.seen(entry.name(), now);
+			}
+		}
+	}
+
+	private void notifyExistingPlayersGamemodes() {
+		for (int slot = 0; slot < roster.slotLimit(); slot++) {
+			PlayerRoster.Entry entry = roster.slot(slot);
+			if (entry == null || entry.normalizedName().equals(localPlayerName) || !settings.watches(entry.normalizedName())) {
+				continue;
+			}
+			maybeSendJoinGamemodeNotification(entry.name(), roster.gameModeId(entry));
+		}
+	}
+
+	private void flushPendingEvent(PendingEvent event) {
+		TrackerEvents.PendingFlush flushEvent = TrackerEvents.beginPendingFlush();
+		pendingMessages(event.joining).remove(event.normalizedName);
+		boolean suppressed = settings.suppressIfServerMessage()
+			&& (shouldSuppressForServerAnnouncement(event.playerName, event.joining) || consumeGenericServerSignal(event.joining));
+		recordEvent(event.playerName, event.normalizedName, event.joining, suppressed);
+		if (!suppressed) {
+			String message = renderPlayerEvent(event.playerName, event.joining, event.gameModeId, event.historyNote);
+			announcePlayerEvent(event.playerName, message, event.joining);
+		}
+		if (flushEvent != null) {
+			flushEvent.playerName = event.playerName;
+			flushEvent.joining = event.joining;
+			flushEvent.announced = !suppressed;
+			flushEvent.commit();
+		}
+	}
+
+	private void consumeSignalsWithPendingMessages(boolean joining) {
+		Map<String, PendingEvent> pending = pendingMessages(joining);
+		if (pending.isEmpty()) {
+			return;
+		}
+		Iterator<PendingEvent> oldestFirst = pending.values().iterator();
+		while (oldestFirst.hasNext() && consumeGenericServerSignal(joining)) {
+			PendingEvent event = oldestFirst.next();
+			deadlines.cancel(event);
+			oldestFirst.remove();
+			recordEvent(event.playerName, event.normalizedName, joining, true);
+		}
+	}
+
+	private void clearPendingMessages(Map<String, PendingEvent> pending) {
+		if (pending.isEmpty()) {
+			return;
+		}
+		for (PendingEvent event : pending.values()) {
+			deadlines.cancel(event);
+		}
+		pending.clear();
+	}
+
+	private void recordEvent(String playerName, String normalizedName, boolean joining, boolean suppressed) {
+		EventHistory.Type type = joining
+			? (suppressed ? EventHistory.Type.SERVER_JOIN : EventHistory.Type.JOIN)
+			: (suppressed ? EventHistory.Type.SERVER_LEAVE : EventHistory.Type.LEAVE);
+		events.record(clock.getAsLong(), playerName, normalizedName, type, PlayerRoster.UNKNOWN_GAME_MODE, PlayerRoster.UNKNOWN_GAME_MODE);
+	}
+
+	private Map<String, PendingEvent> pendingMessages(boolean joining) {
+		return joining ? pendingJoinMessages : pendingLeaveMessages;
+	}
+
+	private boolean consumeGenericServerSignal(boolean joining) {
+		if (joining) {
+			if (pendingServerJoinSignals > 0) {
+				pendingServerJoinSignals--;
+				return true;
+			}
+			return false;
+		}
+
+		if (pendingServerLeaveSignals > 0) {
+			pendingServerLeaveSignals--;
+			return true;
+		}
+		return false;
+	}
+
+	private boolean shouldSuppressForServerAnnouncement(String playerName, boolean joining) {
+		if (!settings.suppressIfServerMessage()) {
+			return false;
+		}
+		Map<String, RecentTimestamp> source = joining ? recentServerJoinAnnouncements : recentServerLeaveAnnouncements;
+		return isRecent(source, normalizePlayerName(playerName), SERVER_ANNOUNCEMENT_WINDOW_MS);
+	}
+
+	private void recordServerJoinLeaveAnnouncement(ChatAnnouncementClassifier.Result result) {
+		long now = clock.getAsLong();
+		List<String> joinNames = result.joinNames();
+		for (int i = 0; i < joinNames.size(); i++) {
+			recordServerAnnouncement(joinNames.get(i), true, now);
+		}
+		int joinMatches = joinNames.size();
+		if (joinMatches == 0 && result.joinPhrase()) {
+			joinMatches = 1;
+		}
+		pendingServerJoinSignals += joinMatches;
+		consumeSignalsWithPendingMessages(true);
+
+		List<String> leaveNames = result.leaveNames();
+		for (int i = 0; i < leaveNames.size(); i++) {
+			recordServerAnnouncement(leaveNames.get(i), false, now);
+		}
+		int leaveMatches = leaveNames.size();
+		if (leaveMatches == 0 && result.leavePhrase()) {
+			leaveMatches = 1;
+		}
+		pendingServerLeaveSignals += leaveMatches;
+		consumeSignalsWithPendingMessages(false);
+	}
+
+	private void recordServerAnnouncement(String playerName, boolean joining, long now) {
+		String normalizedName = normalizePlayerName(playerName);
+		recordTimestamp(
+			joining ? recentServerJoinAnnouncements : recentServerLeaveAnnouncements,
+			normalizedName,
+			now,
+			SERVER_ANNOUNCEMENT_WINDOW_MS
+		);
+		PendingEvent pending = pendingMessages(joining).remove(normalizedName);
+		if (pending != null) {
+			deadlines.cancel(pending);
+			recordEvent(pending.playerName, normalizedName, joining, true);
+		}
+	}
+
+	private void maybeSendAutoWelcomeReply(String playerName) {
+		if (playerName == null || !settings.autoWelcomeEnabled()) {
+			return;
+		}
+
+		String normalizedName = normalizePlayerName(playerName);
+		if (normalizedName.equals(localPlayerName)) {
+			return;
+		}
+		if (isRecent(recentAutoWelcomeTriggers, normalizedName, AUTO_WELCOME_DEDUP_WINDOW_MS)) {
+			return;
+		}
+
+		PlayerRoster.Entry entry = roster.find(playerName);
+		int gameModeId = entry != null ? roster.gameModeId(entry) : PlayerRoster.UNKNOWN_GAME_MODE;
+		String outgoingMessage = renderMessage(settings.autoWelcomeTemplate(), playerName, gameModeId, PlayerRoster.UNKNOWN_GAME_MODE, "");
+		if (outgoingMessage.isBlank()) {
+			return;
+		}
+
+		if (output.sendChat(outgoingMessage)) {
+			recordTimestamp(recentAutoWelcomeTriggers, normalizedName, clock.getAsLong(), AUTO_WELCOME_DEDUP_WINDOW_MS);
+		}
+	}
+
+	private void recordTimestamp(Map<String, RecentTimestamp> timestamps, String key, long now, long windowMillis) {
+		RecentTimestamp timestamp = timestamps.get(key);
+		if (timestamp == null) {
+			timestamp = new RecentTimestamp(timestamps, key);
+			timestamps.put(key, timestamp);
+		}
+		timestamp.recordedAtMillis = now;
+		deadlines.schedule(timestamp, now + windowMillis);
+	}
+
+	private boolean isRecent(Map<String, RecentTimestamp> timestamps, String key, long windowMillis) {
+		RecentTimestamp timestamp = timestamps.get(key);
+		return timestamp != null && (clock.getAsLong() - timestamp.recordedAtMillis) <= windowMillis;
+	}
+
+	private static String normalizePlayerName(String name) {
+		return PlayerRoster.normalize(name);
+	}
+
+	interface Settings {
+		boolean enabled();
+
+		boolean suppressIfServerMessage();
+
+		boolean autoWelcomeEnabled();
+
+		MessageTemplate autoWelcomeTemplate();
+
+		boolean eventDrivenRosterTracking();
+
+		List<PatternPack> patternPacks();
+
+		boolean coalesceJoinStorms();
+
+		int coalesceWindowMs();
+
+		int maxMessagesPerSecond();
+
+		boolean announcesGameModeChangeTo(int gameModeId);
+
+		boolean notifiesJoinGameMode(int gameModeId);
+
+		boolean playerHistoryNotes();
+
+		boolean watches(String normalizedName);
+
+		MessageTemplate joinTemplate();
+
+		MessageTemplate leaveTemplate();
+
+		MessageTemplate gameModeChangeTemplate();
+
+		MessageTemplate joinGameModeTemplate();
+	}
+
+	interface RosterSource {
+		void forEachPlayer(ObjIntConsumer<String> observer);
+	}
+
+	interface Output {
+		void showMessage(String message);
+
+		boolean sendChat(String message);
+	}
+
+	private final class PendingEvent extends DeadlineWheel.Timeout {
+		private final String playerName;
+		private final String normalizedName;
+		private final boolean joining;
+		private final int gameModeId;
+		private final String historyNote;
+
+		private PendingEvent(String playerName, String normalizedName, boolean joining, int gameModeId, String historyNote) {
+			this.playerName = playerName;
+			this.normalizedName = normalizedName;
+			this.joining = joining;
+			this.gameModeId = gameModeId;
+			this.historyNote = historyNote;
+		}
+
+		@Override
+		void expire(long nowMillis) {
+			flushPendingEvent(this);
+		}
+	}
+
+	private static final class RecentTimestamp extends DeadlineWheel.Timeout {
+		private final Map<String, RecentTimestamp> owner;
+		private final String key;
+		private long recordedAtMillis;
+
+		private RecentTimestamp(Map<String, RecentTimestamp> owner, String key) {
+			this.owner = owner;
+			this.key = key;
+		}
+
+		@Override
+		void expire(long nowMillis) {
+			owner.remove(key);
+		}
+	}
+}
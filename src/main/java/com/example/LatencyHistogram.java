@@ -0,0 +1,71 @@
+package com.example;
+
+import java.util.Arrays;
+
+final class LatencyHistogram {
+	private static final int SUB_BUCKET_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final long[] counts = new long[BUCKET_COUNT];
+	private long totalCount;
+	private long maxNanos;
+
+	void record(long nanos) {
+		if (nanos < 0L) {
+			nanos = 0L;
+		}
+		counts[bucketIndex(nanos)]++;
+		totalCount++;
+		if (nanos > maxNanos) {
+			maxNanos = nanos;
+		}
+	}
+
+	long count() {
+		return totalCount;
+	}
+
+	long maxNanos() {
+		return maxNanos;
+	}
+
+	long percentileNanos(double percentile) {
+		if (totalCount == 0L) {
+			return 0L;
+		}
+		long rank = Math.max(1L, (long) Math.ceil(totalCount * percentile / 100.0));
+		long seen = 0L;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return Math.min(bucketUpperBound(i), maxNanos);
+			}
+		}
+		return maxNanos;
+	}
+
+	void reset() {
+		Arrays.fill(counts, 0L);
+		totalCount = 0L;
+		maxNanos = 0L;
+	}
+
+	private static int bucketIndex(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int exponent = (Long.SIZE - 1) - Long.numberOfLeadingZeros(value);
+		int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	private static long bucketUpperBound(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		long subBucket = index & (SUB_BUCKETS - 1);
+		return ((SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+	}
+}
@@ -0,0 +1,98 @@
+package com.example;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+final class MessageCoalescer {
+	private static final int MAX_LISTED_NAMES = 5;
+	private static final long RATE_WINDOW_MS = 1000L;
+
+	private final Map<String, Group> groups = new LinkedHashMap<>();
+	private long rateWindowStartMillis = Long.MIN_VALUE;
+	private int emittedInRateWindow = 0;
+
+	void add(String message, String pluralSuffix, String playerName, long now, long windowMillis) {
+		Group group = groups.get(pluralSuffix);
+		if (group == null) {
+			group = new Group(message, pluralSuffix, now + windowMillis);
+			groups.put(pluralSuffix, group);
+		}
+		group.add(playerName);
+	}
+
+	void flush(long now, int maxMessagesPerSecond, Consumer<String> output) {
+		if (groups.isEmpty()) {
+			return;
+		}
+		if (now - rateWindowStartMillis >= RATE_WINDOW_MS) {
+			rateWindowStartMillis = now;
+			emittedInRateWindow = 0;
+		}
+
+		Iterator<Group> iterator = groups.values().iterator();
+		while (iterator.hasNext() && emittedInRateWindow < maxMessagesPerSecond) {
+			Group group = iterator.next();
+			if (now < group.readyAtMillis) {
+				continue;
+			}
+			iterator.remove();
+			emittedInRateWindow++;
+			output.accept(group.format());
+		}
+	}
+
+	void clear() {
+		groups.clear();
+		emittedInRateWindow = 0;
+	}
+
+	private static final class Group {
+		private final String singleMessage;
+		private final String pluralSuffix;
+		private final long readyAtMillis;
+		private final Set<String> names = new LinkedHashSet<>();
+		private int unlistedNames = 0;
+
+		private Group(String singleMessage, String pluralSuffix, long readyAtMillis) {
+			this.singleMessage = singleMessage;
+			this.pluralSuffix = pluralSuffix;
+			this.readyAtMillis = readyAtMillis;
+		}
+
+		private void add(String playerName) {
+			if (names.contains(playerName)) {
+				return;
+			}
+			if (names.size() < MAX_LISTED_NAMES) {
+				names.add(playerName);
+			} else {
+				unlistedNames++;
+			}
+		}
+
+		private String format() {
+			if (names.size() == 1 && unlistedNames == 0) {
+				return singleMessage;
+			}
+
+			StringBuilder text = new StringBuilder();
+			text.append(names.size() + unlistedNames).append(" players").append(pluralSuffix).append(": ");
+			boolean first = true;
+			for (String name : names) {
+				if (!first) {
+					text.append(", ");
+				}
+				text.append(name);
+				first = false;
+			}
+			if (unlistedNames > 0) {
+				text.append(", +").append(unlistedNames).append(" more");
+			}
+			return text.toString();
+		}
+	}
+}
@@ -0,0 +1,144 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+
+final class MessageTemplate {
+	static final String DEFAULT_JOIN = "{player} joined the game{note}";
+	static final String DEFAULT_LEAVE = "{player} left the game{note}";
+	static final String DEFAULT_GAMEMODE_CHANGE = "{player} changed gamemode: {old_gamemode} -> {gamemode}";
+	static final String DEFAULT_JOIN_GAMEMODE = "{player} is in {gamemode}";
+	static final String DEFAULT_AUTO_WELCOME = "Welcome {player}!";
+
+	private static final long MILLIS_PER_MINUTE = 60_000L;
+	private static final int MINUTES_PER_DAY = 24 * 60;
+
+	private final String source;
+	private final String[] literals;
+	private final Placeholder[] placeholders;
+	private final TimeZone zone;
+
+	private MessageTemplate(String source, String[] literals, Placeholder[] placeholders, TimeZone zone) {
+		this.source = source;
+		this.literals = literals;
+		this.placeholders = placeholders;
+		this.zone = zone;
+	}
+
+	static MessageTemplate compile(String source) {
+		List<String> literals = new ArrayList<>();
+		List<Placeholder> placeholders = new ArrayList<>();
+		StringBuilder literal = new StringBuilder();
+		int index = 0;
+		while (index < source.length()) {
+			char c = source.charAt(index);
+			int close = c == '{' ? source.indexOf('}', index + 1) : -1;
+			Placeholder placeholder = close > 0 ? Placeholder.fromKey(source.substring(index + 1, close)) : null;
+			if (placeholder == null) {
+				literal.append(c);
+				index++;
+				continue;
+			}
+			literals.add(literal.toString());
+			literal.setLength(0);
+			placeholders.add(placeholder);
+			index = close + 1;
+		}
+		literals.add(literal.toString());
+		TimeZone zone = placeholders.contains(Placeholder.TIME) ? TimeZone.getDefault() : null;
+		return new MessageTemplate(source, literals.toArray(new String[0]), placeholders.toArray(new Placeholder[0]), zone);
+	}
+
+	String source() {
+		return source;
+	}
+
+	void render(StringBuilder into, String playerName, int gameModeId, int oldGameModeId, int online, long nowMillis, String note) {
+		into.append(literals[0]);
+		for (int i = 0; i < placeholders.length; i++) {
+			switch (placeholders[i]) {
+				case PLAYER -> into.append(playerName);
+				case GAMEMODE -> into.append(JoinTrackingEngine.formatGameModeName(gameModeId));
+				case OLD_GAMEMODE -> into.append(JoinTrackingEngine.formatGameModeName(oldGameModeId));
+				case ONLINE -> into.append(online);
+				case TIME -> appendTime(into, nowMillis);
+				case NOTE -> into.append(note);
+			}
+			into.append(literals[i + 1]);
+		}
+	}
+
+	private void appendTime(StringBuilder into, long nowMillis) {
+		long localMillis = nowMillis + zone.getOffset(nowMillis);
+		int minuteOfDay = (int) Math.floorMod(Math.floorDiv(localMillis, MILLIS_PER_MINUTE), (long) MINUTES_PER_DAY);
+		appendTwoDigits(into, minuteOfDay / 60);
+		into.append(':');
+		appendTwoDigits(into, minuteOfDay % 60);
+	}
+
+	private static void appendTwoDigits(StringBuilder into, int value) {
+		into.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+	}
+
+	enum Placeholder {
+		PLAYER("player"),
+		GAMEMODE("gamemode"),
+		OLD_GAMEMODE("old_gamemode"),
+		ONLINE("online"),
+		TIME("time"),
+		NOTE("note");
+
+		private final String key;
+
+		Placeholder(String key) {
+			this.key = key;
+		}
+
+		String key() {
+			return key;
+		}
+
+		static Placeholder fromKey(String key) {
+			for (Placeholder placeholder : values()) {
+				if (placeholder.key.equalsIgnoreCase(key)) {
+					return placeholder;
+				}
+			}
+			return null;
+		}
+	}
+
+	enum Kind {
+		JOIN("join", DEFAULT_JOIN),
+		LEAVE("leave", DEFAULT_LEAVE),
+		GAMEMODE_CHANGE("gamemode", DEFAULT_GAMEMODE_CHANGE),
+		JOIN_GAMEMODE("joingamemode", DEFAULT_JOIN_GAMEMODE),
+		AUTO_WELCOME("welcome", DEFAULT_AUTO_WELCOME);
+
+		private final String commandName;
+		private final String defaultSource;
+
+		Kind(String commandName, String defaultSource) {
+			this.commandName = commandName;
+			this.defaultSource = defaultSource;
+		}
+
+		String commandName() {
+			return commandName;
+		}
+
+		String defaultSource() {
+			return defaultSource;
+		}
+
+		static Kind fromCommandName(String name) {
+			for (Kind kind : values()) {
+				if (kind.commandName.equalsIgnoreCase(name)) {
+					return kind;
+				}
+			}
+			return null;
+		}
+	}
+}
@@ -0,0 +1,154 @@
+package com.example;
+
+import java.util.Arrays;
+import java.util.List;
+
+final class NameTrie<V> {
+	private final Node<V> root = new Node<>();
+	private int size = 0;
+
+	V get(String key) {
+		Node<V> node = find(key);
+		return node != null ? node.value : null;
+	}
+
+	V put(String key, V value) {
+		Node<V> node = root;
+		for (int i = 0; i < key.length(); i++) {
+			node = node.childOrCreate(key.charAt(i));
+		}
+		V previous = node.value;
+		node.value = value;
+		if (previous == null) {
+			size++;
+		}
+		return previous;
+	}
+
+	V remove(String key) {
+		Node<V> node = find(key);
+		if (node == null || node.value == null) {
+			return null;
+		}
+		V previous = node.value;
+		node.value = null;
+		size--;
+		prune(root, key, 0);
+		return previous;
+	}
+
+	void clear() {
+		root.clearChildren();
+		root.value = null;
+		size = 0;
+	}
+
+	int size() {
+		return size;
+	}
+
+	boolean containsPrefixOf(String key) {
+		Node<V> node = root;
+		for (int i = 0; node != null; i++) {
+			if (node.value != null) {
+				return true;
+			}
+			if (i == key.length()) {
+				return false;
+			}
+			node = node.child(key.charAt(i));
+		}
+		return false;
+	}
+
+	int collect(String prefix, int limit, List<? super V> into) {
+		Node<V> node = find(prefix);
+		if (node == null || limit <= 0) {
+			return 0;
+		}
+		return collect(node, limit, into);
+	}
+
+	private Node<V> find(String key) {
+		Node<V> node = root;
+		for (int i = 0; i < key.length() && node != null; i++) {
+			node = node.child(key.charAt(i));
+		}
+		return node;
+	}
+
+	private int collect(Node<V> node, int remaining, List<? super V> into) {
+		int added = 0;
+		if (node.value != null) {
+			into.add(node.value);
+			added++;
+		}
+		for (int i = 0; i < node.childCount && added < remaining; i++) {
+			added += collect(node.children[i], remaining - added, into);
+		}
+		return added;
+	}
+
+	private static <V> boolean prune(Node<V> node, String key, int depth) {
+		if (depth < key.length()) {
+			char label = key.charAt(depth);
+			Node<V> child = node.child(label);
+			if (child != null && prune(child, key, depth + 1)) {
+				node.removeChild(label);
+			}
+		}
+		return node.value == null && node.childCount == 0;
+	}
+
+	private static final class Node<V> {
+		private static final char[] NO_LABELS = new char[0];
+
+		private char[] labels = NO_LABELS;
+		private Node<V>[] children;
+		private int childCount = 0;
+		private V value;
+
+		private Node<V> child(char label) {
+			int index = Arrays.binarySearch(labels, 0, childCount, label);
+			return index >= 0 ? children[index] : null;
+		}
+
+		@SuppressWarnings("unchecked")
+		private Node<V> childOrCreate(char label) {
+			int index = Arrays.binarySearch(labels, 0, childCount, label);
+			if (index >= 0) {
+				return children[index];
+			}
+			int insertAt = -index - 1;
+			if (childCount == labels.length) {
+				int capacity = Math.max(2, childCount * 2);
+				labels = Arrays.copyOf(labels, capacity);
+				children = children == null ? (Node<V>[]) new Node<?>[capacity] : Arrays.copyOf(children, capacity);
+			}
+			System.arraycopy(labels, insertAt, labels, insertAt + 1, childCount - insertAt);
+			System.arraycopy(children, insertAt, children, insertAt + 1, childCount - insertAt);
+			Node<V> child = new Node<>();
+			labels[insertAt] = label;
+			children[insertAt] = child;
+			childCount++;
+			return child;
+		}
+
+		private void removeChild(char label) {
+			int index = Arrays.binarySearch(labels, 0, childCount, label);
+			if (index < 0) {
+				return;
+			}
+			System.arraycopy(labels, index + 1, labels, index, childCount - index - 1);
+			System.arraycopy(children, index + 1, children, index, childCount - index - 1);
+			childCount--;
+			children[childCount] = null;
+		}
+
+		private void clearChildren() {
+			labels = NO_LABELS;
+			children = null;
+			childCount = 0;
+		}
+	}
+}
@@ -0,0 +1,14 @@
+package com.example;
+
+import java.util.List;
+
+public record PatternPack(
+	String name,
+	List<String> servers,
+	List<String> joinPatterns,
+	List<String> leavePatterns,
+	List<String> welcomePatterns,
+	List<String> keywords,
+	boolean includeDefaultPatterns
+) {
+}
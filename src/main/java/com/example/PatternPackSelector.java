@@ -0,0 +1,51 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+final class PatternPackSelector {
+	private final Map<PatternPack, AnnouncementPatternPack> compiledPacks = new HashMap<>();
+	private final Map<String, AnnouncementPatternPack> packsByAddress = new HashMap<>();
+	private List<PatternPack> definitions = List.of();
+	private List<AnnouncementPatternPack> orderedPacks = List.of();
+
+	AnnouncementPatternPack select(List<PatternPack> definitions, String serverAddress) {
+		if (definitions != this.definitions) {
+			recompile(definitions);
+		}
+		if (serverAddress == null || serverAddress.isBlank() || orderedPacks.isEmpty()) {
+			return AnnouncementPatternPack.DEFAULT;
+		}
+
+		String normalizedAddress = AnnouncementPatternPack.normalizeServerAddress(serverAddress);
+		return packsByAddress.computeIfAbsent(normalizedAddress, this::findPack);
+	}
+
+	private AnnouncementPatternPack findPack(String normalizedAddress) {
+		for (AnnouncementPatternPack pack : orderedPacks) {
+			if (pack.matchesServer(normalizedAddress)) {
+				return pack;
+			}
+		}
+		return AnnouncementPatternPack.DEFAULT;
+	}
+
+	private void recompile(List<PatternPack> definitions) {
+		Map<PatternPack, AnnouncementPatternPack> previous = new HashMap<>(compiledPacks);
+		compiledPacks.clear();
+		List<AnnouncementPatternPack> packs = new ArrayList<>();
+		for (PatternPack definition : definitions) {
+			AnnouncementPatternPack pack = previous.get(definition);
+			if (pack == null) {
+				pack = AnnouncementPatternPack.compile(definition);
+			}
+			compiledPacks.put(definition, pack);
+			packs.add(pack);
+		}
+		this.definitions = definitions;
+		this.orderedPacks = List.copyOf(packs);
+		packsByAddress.clear();
+	}
+}
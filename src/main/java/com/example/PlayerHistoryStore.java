@@ -0,0 +1,509 @@
+package com.example;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+final class PlayerHistoryStore implements Closeable {
+	static final int LOG_MAGIC = 0x4A4D484C;
+	static final int INDEX_MAGIC = 0x4A4D4849;
+	static final int LOG_VERSION = 1;
+	static final int INDEX_VERSION = 2;
+	static final byte VISIT = 1;
+	static final byte DEPART = 2;
+	static final byte SEEN = 3;
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(JoinMessagesMod.MOD_ID + "-history");
+	private static final ExecutorService WRITER = createWriter();
+	private static final String LOG_FILE = "players.log";
+	private static final String INDEX_FILE = "players.idx";
+	private static final int LOG_HEADER_BYTES = Integer.BYTES * 2;
+	private static final int RECORD_HEADER_BYTES = 1 + Long.BYTES + 1;
+	private static final int MAX_NAME_BYTES = 48;
+	private static final int INDEX_HEADER_BYTES = 32;
+	private static final int CAPACITY_OFFSET = 8;
+	private static final int SIZE_OFFSET = 12;
+	private static final int LOG_LENGTH_OFFSET = 16;
+	private static final int SLOT_BYTES = 80;
+	private static final int FIRST_SEEN_OFFSET = 8;
+	private static final int LAST_SEEN_OFFSET = 16;
+	private static final int VISITS_OFFSET = 24;
+	private static final int NAME_LENGTH_OFFSET = 28;
+	private static final int NAME_OFFSET = 32;
+	private static final int INITIAL_CAPACITY = 4096;
+	private static final int MAX_CAPACITY = 1 << 24;
+	private static final int REPLAY_BUFFER_BYTES = 64 * 1024;
+	private static final int APPEND_BUFFER_BYTES = 16 * 1024;
+	private static final long WRITE_TIMEOUT_SECONDS = 5L;
+	private static final long MINUTE_MS = 60_000L;
+	private static final long HOUR_MS = 60L * MINUTE_MS;
+	private static final long DAY_MS = 24L * HOUR_MS;
+
+	private final Path directory;
+	private final FileChannel log;
+	private final FileChannel index;
+	private final NameHash nameHash;
+	private final byte[] replayName = new byte[MAX_NAME_BYTES];
+	private ByteBuffer pending = ByteBuffer.allocate(APPEND_BUFFER_BYTES);
+	private ByteBuffer writing = ByteBuffer.allocate(APPEND_BUFFER_BYTES);
+	private boolean writeScheduled;
+	private long writtenLength;
+	private MappedByteBuffer slots;
+	private int capacity;
+	private int size;
+	private long logLength;
+	private volatile boolean failed;
+
+	private PlayerHistoryStore(Path directory, FileChannel log, FileChannel index, NameHash nameHash) {
+		this.directory = directory;
+		this.log = log;
+		this.index = index;
+		this.nameHash = nameHash;
+	}
+
+	static PlayerHistoryStore open(Path directory) throws IOException {
+		return open(directory, PlayerHistoryStore::hash);
+	}
+
+	static PlayerHistoryStore open(Path directory, NameHash nameHash) throws IOException {
+		// A store closed for this directory may still be writing its last batch.
+		awaitPendingWrites();
+		Files.createDirectories(directory);
+		FileChannel log = FileChannel.open(directory.resolve(LOG_FILE), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		FileChannel index = null;
+		try {
+			index = FileChannel.open(directory.resolve(INDEX_FILE), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			PlayerHistoryStore store = new PlayerHistoryStore(directory, log, index, nameHash);
+			store.openLog();
+			store.openIndex();
+			return store;
+		} catch (IOException | RuntimeException e) {
+			log.close();
+			if (index != null) {
+				index.close();
+			}
+			throw e;
+		}
+	}
+
+	int size() {
+		return size;
+	}
+
+	boolean lookup(String playerName, Visit visit) {
+		visit.clear();
+		byte[] name = keyBytes(playerName);
+		if (name == null) {
+			return false;
+		}
+		int slot = findSlot(keyHash(name, name.length), name, name.length);
+		if (slots.getLong(slot) == 0L) {
+			return false;
+		}
+		visit.known = true;
+		visit.firstSeenMillis = slots.getLong(slot + FIRST_SEEN_OFFSET);
+		visit.lastSeenMillis = slots.getLong(slot + LAST_SEEN_OFFSET);
+		visit.visits = slots.getInt(slot + VISITS_OFFSET);
+		return true;
+	}
+
+	boolean visit(String playerName, long now, Visit previous) {
+		boolean known = lookup(playerName, previous);
+		record(VISIT, playerName, now);
+		return known;
+	}
+
+	void depart(String playerName, long now) {
+		record(DEPART, playerName, now);
+	}
+
+	void seen(String playerName, long now) {
+		record(SEEN, playerName, now);
+	}
+
+	@Override
+	public void close() {
+		WRITER.execute(this::closeFiles);
+	}
+
+	static void awaitPendingWrites() {
+		try {
+			WRITER.submit(() -> { }).get(WRITE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException | TimeoutException e) {
+			LOGGER.warn("Timed out waiting for player history writes", e);
+		}
+	}
+
+	static String formatElapsed(long millis) {
+		if (millis < MINUTE_MS) {
+			return "just now";
+		}
+		if (millis < HOUR_MS) {
+			return plural(millis / MINUTE_MS, "minute") + " ago";
+		}
+		if (millis < DAY_MS) {
+			return plural(millis / HOUR_MS, "hour") + " ago";
+		}
+		return plural(millis / DAY_MS, "day") + " ago";
+	}
+
+	private static String plural(long count, String unit) {
+		return count + " " + unit + (count == 1L ? "" : "s");
+	}
+
+	private void record(byte type, String playerName, long now) {
+		if (failed) {
+			return;
+		}
+		byte[] name = keyBytes(playerName);
+		if (name == null) {
+			return;
+		}
+		try {
+			append(type, now, name);
+			apply(type, name, name.length, now);
+			writeHeader();
+		} catch (IOException e) {
+			failed = true;
+			LOGGER.warn("Stopped recording player history in {}", directory, e);
+		}
+	}
+
+	private void writePending() {
+		ByteBuffer batch;
+		synchronized (this) {
+			writeScheduled = false;
+			batch = pending;
+			pending = writing;
+			writing = batch;
+		}
+		batch.flip();
+		try {
+			if (!failed && batch.hasRemaining()) {
+				long length = batch.remaining();
+				writeFully(log, batch, writtenLength);
+				writtenLength += length;
+			}
+		} catch (IOException e) {
+			failed = true;
+			LOGGER.warn("Stopped recording player history in {}", directory, e);
+		} finally {
+			batch.clear();
+		}
+	}
+
+	private void closeFiles() {
+		writePending();
+		try {
+			slots.force();
+			log.close();
+			index.close();
+		} catch (IOException e) {
+			LOGGER.warn("Failed to close player history in {}", directory, e);
+		}
+	}
+
+	private void openLog() throws IOException {
+		if (log.size() < LOG_HEADER_BYTES) {
+			log.truncate(0L);
+			ByteBuffer header = ByteBuffer.allocate(LOG_HEADER_BYTES).putInt(LOG_MAGIC).putInt(LOG_VERSION);
+			header.flip();
+			writeFully(log, header, 0L);
+			return;
+		}
+		ByteBuffer header = ByteBuffer.allocate(LOG_HEADER_BYTES);
+		readFully(log, header, 0L);
+		header.flip();
+		if (header.getInt() != LOG_MAGIC) {
+			throw new IOException("Not a player history log: " + directory.resolve(LOG_FILE));
+		}
+		int version = header.getInt();
+		if (version != LOG_VERSION) {
+			throw new IOException("Unsupported player history version " + version);
+		}
+	}
+
+	private void openIndex() throws IOException {
+		long logSize = log.size();
+		ByteBuffer header = ByteBuffer.allocate(INDEX_HEADER_BYTES);
+		if (index.size() >= INDEX_HEADER_BYTES) {
+			readFully(index, header, 0L);
+			header.flip();
+			int storedCapacity = header.getInt(CAPACITY_OFFSET);
+			int storedSize = header.getInt(SIZE_OFFSET);
+			long storedLogLength = header.getLong(LOG_LENGTH_OFFSET);
+			boolean valid = header.getInt(0) == INDEX_MAGIC
+				&& header.getInt(4) == INDEX_VERSION
+				&& storedCapacity >= INITIAL_CAPACITY
+				&& storedCapacity <= MAX_CAPACITY
+				&& Integer.bitCount(storedCapacity) == 1
+				&& index.size() >= indexBytes(storedCapacity)
+				&& storedSize >= 0
+				&& storedSize < storedCapacity
+				&& storedLogLength >= LOG_HEADER_BYTES
+				&& storedLogLength <= logSize;
+			if (valid) {
+				capacity = storedCapacity;
+				size = storedSize;
+				slots = index.map(FileChannel.MapMode.READ_WRITE, 0L, indexBytes(capacity));
+				replayFrom(storedLogLength, logSize);
+				return;
+			}
+			LOGGER.info("Rebuilding player history index in {}", directory);
+		}
+
+		index.truncate(0L);
+		capacity = INITIAL_CAPACITY;
+		size = 0;
+		slots = index.map(FileChannel.MapMode.READ_WRITE, 0L, indexBytes(capacity));
+		slots.putInt(0, INDEX_MAGIC);
+		slots.putInt(4, INDEX_VERSION);
+		slots.putInt(CAPACITY_OFFSET, capacity);
+		replayFrom(LOG_HEADER_BYTES, logSize);
+	}
+
+	private void replayFrom(long start, long logSize) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocateDirect(REPLAY_BUFFER_BYTES);
+		buffer.limit(0);
+		long filePosition = start;
+		long recordStart = start;
+		while (true) {
+			if (buffer.remaining() < RECORD_HEADER_BYTES + MAX_NAME_BYTES && filePosition < logSize) {
+				buffer.compact();
+				while (buffer.hasRemaining()) {
+					int read = log.read(buffer, filePosition);
+					if (read <= 0) {
+						break;
+					}
+					filePosition += read;
+				}
+				buffer.flip();
+			}
+			if (buffer.remaining() < RECORD_HEADER_BYTES) {
+				break;
+			}
+			byte type = buffer.get();
+			long timestamp = buffer.getLong();
+			int length = buffer.get() & 0xFF;
+			if ((type != VISIT && type != DEPART && type != SEEN) || length == 0 || length > MAX_NAME_BYTES
+				|| buffer.remaining() < length) {
+				break;
+			}
+			buffer.get(replayName, 0, length);
+			apply(type, replayName, length, timestamp);
+			recordStart += RECORD_HEADER_BYTES + length;
+		}
+
+		if (recordStart < logSize) {
+			LOGGER.warn("Discarding {} bytes of incomplete player history in {}", logSize - recordStart, directory);
+			log.truncate(recordStart);
+		}
+		logLength = recordStart;
+		writtenLength = recordStart;
+		writeHeader();
+	}
+
+	private synchronized void append(byte type, long timestamp, byte[] name) {
+		int recordBytes = RECORD_HEADER_BYTES + name.length;
+		if (pending.remaining() < recordBytes) {
+			pending.flip();
+			pending = ByteBuffer.allocate(pending.capacity() * 2).put(pending);
+		}
+		pending.put(type).putLong(timestamp).put((byte) name.length).put(name);
+		logLength += recordBytes;
+		if (!writeScheduled) {
+			writeScheduled = true;
+			WRITER.execute(this::writePending);
+		}
+	}
+
+	private void apply(byte type, byte[] name, int length, long timestamp) throws IOException {
+		long hash = keyHash(name, length);
+		int slot = findSlot(hash, name, length);
+		if (slots.getLong(slot) == 0L) {
+			if ((size + 1) * 4L > capacity * 3L) {
+				grow();
+				slot = findSlot(hash, name, length);
+			}
+			slots.putLong(slot, hash);
+			slots.putLong(slot + FIRST_SEEN_OFFSET, timestamp);
+			slots.putLong(slot + LAST_SEEN_OFFSET, timestamp);
+			slots.put(slot + NAME_LENGTH_OFFSET, (byte) length);
+			slots.put(slot + NAME_OFFSET, name, 0, length);
+			size++;
+		} else if (timestamp > slots.getLong(slot + LAST_SEEN_OFFSET)) {
+			slots.putLong(slot + LAST_SEEN_OFFSET, timestamp);
+		}
+		if (type == VISIT) {
+			slots.putInt(slot + VISITS_OFFSET, slots.getInt(slot + VISITS_OFFSET) + 1);
+		}
+	}
+
+	private long keyHash(byte[] name, int length) {
+		long hash = nameHash.hash(name, length);
+		return hash != 0L ? hash : 1L;
+	}
+
+	private int findSlot(long hash, byte[] name, int length) {
+		int mask = capacity - 1;
+		int bucket = (int) (hash ^ (hash >>> 32)) & mask;
+		while (true) {
+			int slot = INDEX_HEADER_BYTES + bucket * SLOT_BYTES;
+			long stored = slots.getLong(slot);
+			if (stored == 0L || (stored == hash && nameMatches(slot, name, length))) {
+				return slot;
+			}
+			bucket = (bucket + 1) & mask;
+		}
+	}
+
+	private boolean nameMatches(int slot, byte[] name, int length) {
+		if ((slots.get(slot + NAME_LENGTH_OFFSET) & 0xFF) != length) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (slots.get(slot + NAME_OFFSET + i) != name[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private int findEmptySlot(long hash) {
+		int mask = capacity - 1;
+		int bucket = (int) (hash ^ (hash >>> 32)) & mask;
+		while (slots.getLong(INDEX_HEADER_BYTES + bucket * SLOT_BYTES) != 0L) {
+			bucket = (bucket + 1) & mask;
+		}
+		return INDEX_HEADER_BYTES + bucket * SLOT_BYTES;
+	}
+
+	private void grow() throws IOException {
+		if (capacity >= MAX_CAPACITY) {
+			throw new IOException("Player history index is full");
+		}
+		int oldCapacity = capacity;
+		ByteBuffer previous = ByteBuffer.allocate(oldCapacity * SLOT_BYTES);
+		ByteBuffer oldSlots = slots.duplicate();
+		oldSlots.position(INDEX_HEADER_BYTES).limit(INDEX_HEADER_BYTES + oldCapacity * SLOT_BYTES);
+		previous.put(oldSlots);
+
+		capacity = oldCapacity * 2;
+		slots = index.map(FileChannel.MapMode.READ_WRITE, 0L, indexBytes(capacity));
+		for (int offset = INDEX_HEADER_BYTES; offset < indexBytes(capacity); offset += Long.BYTES) {
+			slots.putLong(offset, 0L);
+		}
+		slots.putInt(CAPACITY_OFFSET, capacity);
+		for (int offset = 0; offset < previous.capacity(); offset += SLOT_BYTES) {
+			long hash = previous.getLong(offset);
+			if (hash == 0L) {
+				continue;
+			}
+			slots.put(findEmptySlot(hash), previous, offset, SLOT_BYTES);
+		}
+	}
+
+	private void writeHeader() {
+		slots.putInt(SIZE_OFFSET, size);
+		slots.putLong(LOG_LENGTH_OFFSET, logLength);
+	}
+
+	private static ExecutorService createWriter() {
+		return Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, JoinMessagesMod.MOD_ID + "-history-writer");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	private static int indexBytes(int capacity) {
+		return INDEX_HEADER_BYTES + capacity * SLOT_BYTES;
+	}
+
+	private static byte[] keyBytes(String playerName) {
+		if (playerName == null || playerName.isBlank()) {
+			return null;
+		}
+		byte[] name = PlayerRoster.normalize(playerName).getBytes(StandardCharsets.UTF_8);
+		return name.length <= MAX_NAME_BYTES ? name : null;
+	}
+
+	private static long hash(byte[] name, int length) {
+		long hash = 0xCBF29CE484222325L;
+		for (int i = 0; i < length; i++) {
+			hash ^= name[i] & 0xFF;
+			hash *= 0x100000001B3L;
+		}
+		hash ^= hash >>> 33;
+		hash *= 0xFF51AFD7ED558CCDL;
+		hash ^= hash >>> 33;
+		return hash != 0L ? hash : 1L;
+	}
+
+	private static void readFully(FileChannel channel, ByteBuffer target, long position) throws IOException {
+		while (target.hasRemaining()) {
+			int read = channel.read(target, position);
+			if (read < 0) {
+				throw new IOException("Unexpected end of player history file");
+			}
+			position += read;
+		}
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer source, long position) throws IOException {
+		while (source.hasRemaining()) {
+			position += channel.write(source, position);
+		}
+	}
+
+	@FunctionalInterface
+	interface NameHash {
+		long hash(byte[] name, int length);
+	}
+
+	static final class Visit {
+		private boolean known;
+		private long firstSeenMillis;
+		private long lastSeenMillis;
+		private int visits;
+
+		boolean known() {
+			return known;
+		}
+
+		long firstSeenMillis() {
+			return firstSeenMillis;
+		}
+
+		long lastSeenMillis() {
+			return lastSeenMillis;
+		}
+
+		int visits() {
+			return visits;
+		}
+
+		private void clear() {
+			known = false;
+			firstSeenMillis = 0L;
+			lastSeenMillis = 0L;
+			visits = 0;
+		}
+	}
+}
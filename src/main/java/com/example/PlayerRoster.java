@@ -0,0 +1,241 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+final class PlayerRoster {
+	static final byte UNKNOWN_GAME_MODE = -1;
+	private static final int KNOWN_GAME_MODES = 4;
+
+	private final Map<String, Entry> entriesByName = new HashMap<>();
+	private final NameTrie<Entry> entriesByNormalizedName = new NameTrie<>();
+	private final List<Entry> joined = new ArrayList<>();
+	private final List<Entry> left = new ArrayList<>();
+	private final List<Entry> gameModeChanges = new ArrayList<>();
+	private Entry[] slots = new Entry[64];
+	private byte[] gameModes = new byte[64];
+	private byte[] previousGameModes = new byte[64];
+	private int[] freeSlots = new int[64];
+	private int[] gameModeMemberIndex = new int[64];
+	private final int[][] gameModeMembers = new int[KNOWN_GAME_MODES + 1][16];
+	private final int[] gameModeCounts = new int[KNOWN_GAME_MODES + 1];
+	private int freeSlotCount = 0;
+	private int slotLimit = 0;
+	private int size = 0;
+	private int scanEpoch = 0;
+
+	void beginScan() {
+		scanEpoch++;
+		joined.clear();
+		left.clear();
+		gameModeChanges.clear();
+	}
+
+	void observe(String playerName, int gameModeId) {
+		Entry entry = entriesByName.get(playerName);
+		if (entry == null) {
+			entry = observeUnknownName(playerName, gameModeId);
+		}
+		if (entry.lastSeenEpoch == scanEpoch) {
+			return;
+		}
+		entry.lastSeenEpoch = scanEpoch;
+
+		int slot = entry.slot;
+		byte gameMode = (byte) gameModeId;
+		if (gameModes[slot] != gameMode) {
+			unindexGameMode(slot, gameModes[slot]);
+			indexGameMode(slot, gameMode);
+			previousGameModes[slot] = gameModes[slot];
+			gameModes[slot] = gameMode;
+			gameModeChanges.add(entry);
+		}
+	}
+
+	void endScan() {
+		for (int slot = 0; slot < slotLimit; slot++) {
+			Entry entry = slots[slot];
+			if (entry == null || entry.lastSeenEpoch == scanEpoch) {
+				continue;
+			}
+			left.add(entry);
+			entriesByName.remove(entry.name);
+			entriesByNormalizedName.remove(entry.normalizedName);
+			releaseSlot(slot);
+		}
+	}
+
+	void clear() {
+		entriesByName.clear();
+		entriesByNormalizedName.clear();
+		joined.clear();
+		left.clear();
+		gameModeChanges.clear();
+		Arrays.fill(slots, 0, slotLimit, null);
+		Arrays.fill(gameModeCounts, 0);
+		freeSlotCount = 0;
+		slotLimit = 0;
+		size = 0;
+	}
+
+	int size() {
+		return size;
+	}
+
+	int slotLimit() {
+		return slotLimit;
+	}
+
+	Entry slot(int slot) {
+		return slots[slot];
+	}
+
+	Entry find(String playerName) {
+		Entry entry = entriesByName.get(playerName);
+		if (entry != null) {
+			return entry;
+		}
+		return entriesByNormalizedName.get(normalize(playerName));
+	}
+
+	int findByPrefix(String prefix, int limit, List<Entry> into) {
+		return entriesByNormalizedName.collect(normalize(prefix), limit, into);
+	}
+
+	int gameModeCount(int gameModeId) {
+		return gameModeCounts[gameModeBucket(gameModeId)];
+	}
+
+	Entry playerInGameMode(int gameModeId, int index) {
+		return slots[gameModeMembers[gameModeBucket(gameModeId)][index]];
+	}
+
+	int gameModeId(Entry entry) {
+		return gameModes[entry.slot];
+	}
+
+	int previousGameModeId(Entry entry) {
+		return previousGameModes[entry.slot];
+	}
+
+	List<Entry> joined() {
+		return joined;
+	}
+
+	List<Entry> left() {
+		return left;
+	}
+
+	List<Entry> gameModeChanges() {
+		return gameModeChanges;
+	}
+
+	static String normalize(String playerName) {
+		return playerName.toLowerCase(Locale.ROOT);
+	}
+
+	private Entry observeUnknownName(String playerName, int gameModeId) {
+		String normalizedName = normalize(playerName);
+		Entry entry = entriesByNormalizedName.get(normalizedName);
+		if (entry != null) {
+			entriesByName.remove(entry.name);
+			entry.name = playerName;
+			entriesByName.put(playerName, entry);
+			return entry;
+		}
+
+		int slot = allocateSlot();
+		entry = new Entry(playerName, normalizedName, slot);
+		slots[slot] = entry;
+		gameModes[slot] = (byte) gameModeId;
+		previousGameModes[slot] = UNKNOWN_GAME_MODE;
+		indexGameMode(slot, gameModes[slot]);
+		entriesByName.put(playerName, entry);
+		entriesByNormalizedName.put(normalizedName, entry);
+		size++;
+		joined.add(entry);
+		return entry;
+	}
+
+	private int allocateSlot() {
+		if (freeSlotCount > 0) {
+			return freeSlots[--freeSlotCount];
+		}
+		if (slotLimit == slots.length) {
+			int capacity = slots.length * 2;
+			slots = Arrays.copyOf(slots, capacity);
+			gameModes = Arrays.copyOf(gameModes, capacity);
+			previousGameModes = Arrays.copyOf(previousGameModes, capacity);
+			freeSlots = Arrays.copyOf(freeSlots, capacity);
+			gameModeMemberIndex = Arrays.copyOf(gameModeMemberIndex, capacity);
+		}
+		return slotLimit++;
+	}
+
+	private void releaseSlot(int slot) {
+		unindexGameMode(slot, gameModes[slot]);
+		slots[slot] = null;
+		gameModes[slot] = UNKNOWN_GAME_MODE;
+		previousGameModes[slot] = UNKNOWN_GAME_MODE;
+		size--;
+		if (slot == slotLimit - 1) {
+			slotLimit--;
+		} else {
+			freeSlots[freeSlotCount++] = slot;
+		}
+	}
+
+	private void indexGameMode(int slot, int gameModeId) {
+		int bucket = gameModeBucket(gameModeId);
+		int count = gameModeCounts[bucket];
+		if (count == gameModeMembers[bucket].length) {
+			gameModeMembers[bucket] = Arrays.copyOf(gameModeMembers[bucket], count * 2);
+		}
+		gameModeMembers[bucket][count] = slot;
+		gameModeMemberIndex[slot] = count;
+		gameModeCounts[bucket] = count + 1;
+	}
+
+	private void unindexGameMode(int slot, int gameModeId) {
+		int bucket = gameModeBucket(gameModeId);
+		int[] members = gameModeMembers[bucket];
+		int last = --gameModeCounts[bucket];
+		int moved = members[last];
+		int index = gameModeMemberIndex[slot];
+		members[index] = moved;
+		gameModeMemberIndex[moved] = index;
+	}
+
+	private static int gameModeBucket(int gameModeId) {
+		return gameModeId >= 0 && gameModeId < KNOWN_GAME_MODES ? gameModeId + 1 : 0;
+	}
+
+	static final class Entry {
+		private final String normalizedName;
+		private final int slot;
+		private String name;
+		private int lastSeenEpoch;
+
+		private Entry(String name, String normalizedName, int slot) {
+			this.name = name;
+			this.normalizedName = normalizedName;
+			this.slot = slot;
+		}
+
+		String name() {
+			return name;
+		}
+
+		String normalizedName() {
+			return normalizedName;
+		}
+
+		int slot() {
+			return slot;
+		}
+	}
+}
@@ -0,0 +1,67 @@
+package com.example;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+final class ReflectiveAccessor extends ClassValue<MethodHandle> {
+	private static final MethodHandle MISSING = MethodHandles.empty(MethodType.methodType(void.class));
+
+	private final String description;
+	private final Class<?> returnType;
+	private final Class<?>[] parameterTypes;
+	private final MethodType invocationType;
+	private final String[] methodNames;
+
+	private ReflectiveAccessor(String description, Class<?> returnType, Class<?>[] parameterTypes, MethodType invocationType, String... methodNames) {
+		this.description = description;
+		this.returnType = returnType;
+		this.parameterTypes = parameterTypes;
+		this.invocationType = invocationType;
+		this.methodNames = methodNames;
+	}
+
+	static ReflectiveAccessor getter(String description, Class<?> returnType, String... methodNames) {
+		return new ReflectiveAccessor(
+			description,
+			returnType,
+			new Class<?>[0],
+			MethodType.methodType(Object.class, Object.class),
+			methodNames
+		);
+	}
+
+	static ReflectiveAccessor consumer(String description, Class<?> parameterType, String... methodNames) {
+		return new ReflectiveAccessor(
+			description,
+			null,
+			new Class<?>[] { parameterType },
+			MethodType.methodType(void.class, Object.class, parameterType),
+			methodNames
+		);
+	}
+
+	MethodHandle resolve(Object target) {
+		MethodHandle handle = get(target.getClass());
+		return handle == MISSING ? null : handle;
+	}
+
+	@Override
+	protected MethodHandle computeValue(Class<?> type) {
+		for (String methodName : methodNames) {
+			try {
+				Method method = type.getMethod(methodName, parameterTypes);
+				if (returnType != null && !returnType.isAssignableFrom(method.getReturnType())) {
+					continue;
+				}
+				return MethodHandles.publicLookup().unreflect(method).asType(invocationType);
+			} catch (NoSuchMethodException ignored) {
+			} catch (IllegalAccessException e) {
+				JoinMessagesMod.LOGGER.debug("Could not access {}.{}()", type.getName(), methodName, e);
+			}
+		}
+		JoinMessagesMod.LOGGER.warn("No compatible {} method found on {}", description, type.getName());
+		return MISSING;
+	}
+}
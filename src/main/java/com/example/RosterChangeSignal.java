@@ -0,0 +1,37 @@
+package com.example;
+
+import net.minecraft.network.protocol.game.ClientboundPlayerInfoUpdatePacket;
+
+import java.util.EnumSet;
+
+public final class RosterChangeSignal {
+	private static final EnumSet<ClientboundPlayerInfoUpdatePacket.Action> ROSTER_ACTIONS = EnumSet.of(
+		ClientboundPlayerInfoUpdatePacket.Action.ADD_PLAYER,
+		ClientboundPlayerInfoUpdatePacket.Action.UPDATE_LISTED,
+		ClientboundPlayerInfoUpdatePacket.Action.UPDATE_GAME_MODE
+	);
+
+	private static boolean changed = true;
+
+	private RosterChangeSignal() {
+	}
+
+	public static boolean affectsRoster(EnumSet<ClientboundPlayerInfoUpdatePacket.Action> actions) {
+		for (ClientboundPlayerInfoUpdatePacket.Action action : actions) {
+			if (ROSTER_ACTIONS.contains(action)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public static void markChanged() {
+		changed = true;
+	}
+
+	public static boolean consumeChanged() {
+		boolean result = changed;
+		changed = false;
+		return result;
+	}
+}
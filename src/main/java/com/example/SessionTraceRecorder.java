@@ -0,0 +1,216 @@
+package com.example;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
+
+final class SessionTraceRecorder implements Closeable, JoinTrackingEngine.RosterSource, ObjIntConsumer<String> {
+	static final int MAGIC = 0x4A4D5452;
+	static final int VERSION = 2;
+	static final byte CONNECT = 1;
+	static final byte TICK = 2;
+	static final byte ROSTER = 3;
+	static final byte CHAT = 4;
+	static final byte ANNOUNCEMENT = 5;
+	static final byte DISCONNECT = 6;
+	static final byte MESSAGE = 7;
+	static final long ROSTER_END = -1L;
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(JoinMessagesMod.MOD_ID + "-trace");
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final int MAX_VARINT_BYTES = 10;
+
+	private final Path path;
+	private final FileChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+	private final Map<String, Integer> nameIds = new HashMap<>();
+	private JoinTrackingEngine.RosterSource delegate;
+	private ObjIntConsumer<String> observer;
+	private long lastTimestamp;
+	private boolean failed;
+
+	private SessionTraceRecorder(Path path, FileChannel channel) {
+		this.path = path;
+		this.channel = channel;
+	}
+
+	static SessionTraceRecorder open(Path path) throws IOException {
+		Files.createDirectories(path.getParent());
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		SessionTraceRecorder recorder = new SessionTraceRecorder(path, channel);
+		recorder.buffer.putInt(MAGIC).putInt(VERSION);
+		return recorder;
+	}
+
+	Path path() {
+		return path;
+	}
+
+	void connect(long now, String serverAddress, String localPlayerName) {
+		if (failed) {
+			return;
+		}
+		beginRecord(CONNECT, now);
+		putString(serverAddress != null ? serverAddress : "");
+		putString(localPlayerName != null ? localPlayerName : "");
+	}
+
+	JoinTrackingEngine.RosterSource tick(long now, boolean rosterChanged, JoinTrackingEngine.RosterSource source) {
+		if (failed) {
+			return source;
+		}
+		beginRecord(TICK, now);
+		buffer.put(rosterChanged ? (byte) 1 : (byte) 0);
+		delegate = source;
+		return this;
+	}
+
+	void chat(long now, String text) {
+		if (failed) {
+			return;
+		}
+		beginRecord(CHAT, now);
+		putString(text);
+	}
+
+	void message(long now, String text, boolean delivered) {
+		if (failed) {
+			return;
+		}
+		beginRecord(MESSAGE, now);
+		putString(text);
+		ensure(1);
+		buffer.put(delivered ? (byte) 1 : (byte) 0);
+	}
+
+	void announcement(long now, String playerName, boolean joining) {
+		if (failed) {
+			return;
+		}
+		beginRecord(ANNOUNCEMENT, now);
+		putString(playerName);
+		ensure(1);
+		buffer.put(joining ? (byte) 1 : (byte) 0);
+	}
+
+	void disconnect(long now) {
+		if (failed) {
+			return;
+		}
+		beginRecord(DISCONNECT, now);
+		flush();
+	}
+
+	@Override
+	public void forEachPlayer(ObjIntConsumer<String> observer) {
+		ensure(1);
+		buffer.put(ROSTER);
+		this.observer = observer;
+		delegate.forEachPlayer(this);
+		ensure(MAX_VARINT_BYTES);
+		putVarLong(ROSTER_END);
+	}
+
+	@Override
+	public void accept(String playerName, int gameModeId) {
+		observer.accept(playerName, gameModeId);
+		if (playerName == null) {
+			return;
+		}
+		Integer id = nameIds.get(playerName);
+		ensure(MAX_VARINT_BYTES);
+		if (id == null) {
+			int newId = nameIds.size();
+			nameIds.put(playerName, newId);
+			putVarLong(newId);
+			putString(playerName);
+		} else {
+			putVarLong(id);
+		}
+		ensure(1);
+		buffer.put((byte) gameModeId);
+	}
+
+	@Override
+	public void close() {
+		if (!failed) {
+			flush();
+		}
+		try {
+			channel.close();
+		} catch (IOException e) {
+			LOGGER.warn("Failed to close session trace {}", path, e);
+		}
+	}
+
+	boolean failed() {
+		return failed;
+	}
+
+	private void beginRecord(byte type, long now) {
+		ensure(2 + MAX_VARINT_BYTES);
+		buffer.put(type);
+		putVarLong(now - lastTimestamp);
+		lastTimestamp = now;
+	}
+
+	private void putString(String value) {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		ensure(MAX_VARINT_BYTES);
+		putVarLong(bytes.length);
+		if (bytes.length <= buffer.capacity()) {
+			ensure(bytes.length);
+			buffer.put(bytes);
+			return;
+		}
+		flush();
+		write(ByteBuffer.wrap(bytes));
+	}
+
+	private void putVarLong(long value) {
+		long zigZag = (value << 1) ^ (value >> 63);
+		while ((zigZag & ~0x7FL) != 0L) {
+			buffer.put((byte) ((zigZag & 0x7F) | 0x80));
+			zigZag >>>= 7;
+		}
+		buffer.put((byte) zigZag);
+	}
+
+	private void ensure(int bytes) {
+		if (buffer.remaining() < bytes) {
+			flush();
+		}
+	}
+
+	private void flush() {
+		buffer.flip();
+		write(buffer);
+		buffer.clear();
+	}
+
+	private void write(ByteBuffer source) {
+		if (failed) {
+			source.position(source.limit());
+			return;
+		}
+		try {
+			while (source.hasRemaining()) {
+				channel.write(source);
+			}
+		} catch (IOException e) {
+			failed = true;
+			LOGGER.warn("Stopped recording session trace {}", path, e);
+		}
+	}
+}
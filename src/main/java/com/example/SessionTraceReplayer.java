@@ -0,0 +1,187 @@
+package com.example;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+
+final class SessionTraceReplayer implements JoinTrackingEngine.RosterSource {
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final FileChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+	private final List<String> names = new ArrayList<>();
+	private final List<String> prefilterMisses = new ArrayList<>();
+	private String[] rosterNames = new String[64];
+	private int[] rosterGameModes = new int[64];
+	private int rosterSize;
+	private long now;
+	private boolean endOfFile;
+
+	private SessionTraceReplayer(FileChannel channel) {
+		this.channel = channel;
+		this.buffer.limit(0);
+	}
+
+	static Stats replay(Path trace, Supplier<? extends JoinTrackingEngine.Settings> settings, JoinTrackingEngine.Output output)
+		throws IOException {
+		try (FileChannel channel = FileChannel.open(trace, StandardOpenOption.READ)) {
+			return new SessionTraceReplayer(channel).run(settings, output);
+		}
+	}
+
+	private Stats run(Supplier<? extends JoinTrackingEngine.Settings> settings, JoinTrackingEngine.Output output) throws IOException {
+		if (!fill(Integer.BYTES * 2) || buffer.getInt() != SessionTraceRecorder.MAGIC) {
+			throw new IOException("Not a session trace");
+		}
+		int version = buffer.getInt();
+		if (version < 1 || version > SessionTraceRecorder.VERSION) {
+			throw new IOException("Unsupported session trace version " + version);
+		}
+
+		JoinTrackingEngine engine = new JoinTrackingEngine(() -> now, settings, output);
+		long ticks = 0L;
+		long messages = 0L;
+		long firstTimestamp = Long.MIN_VALUE;
+		while (fill(1)) {
+			byte type = buffer.get();
+			try {
+				replayRecord(engine, type);
+			} catch (EOFException e) {
+				break;
+			}
+			if (firstTimestamp == Long.MIN_VALUE) {
+				firstTimestamp = now;
+			}
+			if (type == SessionTraceRecorder.TICK) {
+				ticks++;
+			} else if (type == SessionTraceRecorder.CHAT || type == SessionTraceRecorder.ANNOUNCEMENT) {
+				messages++;
+			}
+		}
+		return new Stats(ticks, messages, firstTimestamp == Long.MIN_VALUE ? 0L : now - firstTimestamp, List.copyOf(prefilterMisses));
+	}
+
+	private void replayRecord(JoinTrackingEngine engine, byte type) throws IOException {
+		now += readVarLong();
+		switch (type) {
+			case SessionTraceRecorder.CONNECT -> engine.connect(readString(), readString());
+			case SessionTraceRecorder.TICK -> {
+				boolean rosterChanged = readByte() != 0;
+				readRosterIfPresent();
+				engine.tick(this, rosterChanged);
+			}
+			case SessionTraceRecorder.CHAT -> engine.onChatText(readString());
+			case SessionTraceRecorder.ANNOUNCEMENT -> {
+				String playerName = readString();
+				engine.onServerAnnouncement(playerName, readByte() != 0);
+			}
+			case SessionTraceRecorder.DISCONNECT -> engine.disconnect();
+			case SessionTraceRecorder.MESSAGE -> {
+				String text = readString();
+				if (readByte() == 0 && engine.classifiesAsAnnouncement(text)) {
+					prefilterMisses.add(text);
+				}
+			}
+			default -> throw new IOException("Corrupt session trace: unknown record type " + type);
+		}
+	}
+
+	@Override
+	public void forEachPlayer(ObjIntConsumer<String> observer) {
+		for (int i = 0; i < rosterSize; i++) {
+			observer.accept(rosterNames[i], rosterGameModes[i]);
+		}
+	}
+
+	private void readRosterIfPresent() throws IOException {
+		if (!fill(1) || buffer.get(buffer.position()) != SessionTraceRecorder.ROSTER) {
+			return;
+		}
+		buffer.get();
+		rosterSize = 0;
+		while (true) {
+			long id = readVarLong();
+			if (id == SessionTraceRecorder.ROSTER_END) {
+				return;
+			}
+			if (id == names.size()) {
+				names.add(readString());
+			} else if (id < 0 || id > names.size()) {
+				throw new IOException("Corrupt session trace: unknown player id " + id);
+			}
+			if (rosterSize == rosterNames.length) {
+				rosterNames = Arrays.copyOf(rosterNames, rosterSize * 2);
+				rosterGameModes = Arrays.copyOf(rosterGameModes, rosterSize * 2);
+			}
+			rosterNames[rosterSize] = names.get((int) id);
+			rosterGameModes[rosterSize] = readByte();
+			rosterSize++;
+		}
+	}
+
+	private byte readByte() throws IOException {
+		require(1);
+		return buffer.get();
+	}
+
+	private String readString() throws IOException {
+		int length = (int) readVarLong();
+		if (length < 0) {
+			throw new IOException("Corrupt session trace: negative string length");
+		}
+		byte[] bytes = new byte[length];
+		int offset = 0;
+		while (offset < length) {
+			require(1);
+			int chunk = Math.min(length - offset, buffer.remaining());
+			buffer.get(bytes, offset, chunk);
+			offset += chunk;
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private long readVarLong() throws IOException {
+		long zigZag = 0L;
+		for (int shift = 0; shift < Long.SIZE; shift += 7) {
+			byte b = readByte();
+			zigZag |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return (zigZag >>> 1) ^ -(zigZag & 1L);
+			}
+		}
+		throw new IOException("Corrupt session trace: varint too long");
+	}
+
+	private void require(int bytes) throws IOException {
+		if (!fill(bytes)) {
+			throw new EOFException("Truncated session trace");
+		}
+	}
+
+	private boolean fill(int bytes) throws IOException {
+		while (buffer.remaining() < bytes) {
+			if (endOfFile) {
+				return false;
+			}
+			buffer.compact();
+			int read = channel.read(buffer);
+			buffer.flip();
+			if (read < 0) {
+				endOfFile = true;
+			}
+		}
+		return true;
+	}
+
+	record Stats(long ticks, long messages, long sessionMillis, List<String> prefilterMisses) {
+	}
+}
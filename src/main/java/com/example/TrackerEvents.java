@@ -0,0 +1,129 @@
+package com.example;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+final class TrackerEvents {
+	private static final String CATEGORY = "JoinMessages";
+	private static final EventType ROSTER_DIFF = EventType.getEventType(RosterDiff.class);
+	private static final EventType CHAT_CLASSIFICATION = EventType.getEventType(ChatClassification.class);
+	private static final EventType PENDING_FLUSH = EventType.getEventType(PendingFlush.class);
+	private static final EventType CONFIG_SAVE = EventType.getEventType(ConfigSave.class);
+	private static final EventType UPDATE_CHECK = EventType.getEventType(UpdateCheck.class);
+
+	private TrackerEvents() {
+	}
+
+	static RosterDiff beginRosterDiff() {
+		return ROSTER_DIFF.isEnabled() ? begin(new RosterDiff()) : null;
+	}
+
+	static ChatClassification beginChatClassification() {
+		return CHAT_CLASSIFICATION.isEnabled() ? begin(new ChatClassification()) : null;
+	}
+
+	static PendingFlush beginPendingFlush() {
+		return PENDING_FLUSH.isEnabled() ? begin(new PendingFlush()) : null;
+	}
+
+	static ConfigSave beginConfigSave() {
+		return CONFIG_SAVE.isEnabled() ? begin(new ConfigSave()) : null;
+	}
+
+	static UpdateCheck beginUpdateCheck() {
+		return UPDATE_CHECK.isEnabled() ? begin(new UpdateCheck()) : null;
+	}
+
+	private static <T extends Event> T begin(T event) {
+		event.begin();
+		return event;
+	}
+
+	@Name("com.example.joinmessages.RosterDiff")
+	@Label("Roster Diff")
+	@Description("Tab list scan and join/leave diff performed on a client tick")
+	@Category(CATEGORY)
+	@Enabled(false)
+	@StackTrace(false)
+	static final class RosterDiff extends Event {
+		@Label("Players")
+		int players;
+
+		@Label("Joins")
+		int joins;
+
+		@Label("Leaves")
+		int leaves;
+
+		@Label("Gamemode Changes")
+		int gameModeChanges;
+
+		@Label("Seed")
+		boolean seed;
+	}
+
+	@Name("com.example.joinmessages.ChatClassification")
+	@Label("Chat Classification")
+	@Description("Classification of an incoming chat or game message")
+	@Category(CATEGORY)
+	@Enabled(false)
+	@StackTrace(false)
+	static final class ChatClassification extends Event {
+		@Label("Matched Type")
+		String matchedType;
+
+		@Label("Text Length")
+		int textLength;
+	}
+
+	@Name("com.example.joinmessages.PendingFlush")
+	@Label("Pending Message Flush")
+	@Description("A delayed join/leave message reaching its deadline")
+	@Category(CATEGORY)
+	@Enabled(false)
+	@StackTrace(false)
+	static final class PendingFlush extends Event {
+		@Label("Player")
+		String playerName;
+
+		@Label("Joining")
+		boolean joining;
+
+		@Label("Announced")
+		boolean announced;
+	}
+
+	@Name("com.example.joinmessages.ConfigSave")
+	@Label("Config Save")
+	@Description("Config file write on the background writer thread")
+	@Category(CATEGORY)
+	@Enabled(false)
+	@StackTrace(false)
+	static final class ConfigSave extends Event {
+		@Label("Bytes")
+		int bytes;
+
+		@Label("Succeeded")
+		boolean succeeded;
+	}
+
+	@Name("com.example.joinmessages.UpdateCheck")
+	@Label("Modrinth Update Check")
+	@Description("Modrinth version lookup triggered by Mod Menu")
+	@Category(CATEGORY)
+	@Enabled(false)
+	@StackTrace(false)
+	static final class UpdateCheck extends Event {
+		@Label("HTTP Status")
+		int statusCode;
+
+		@Label("Update Available")
+		boolean updateAvailable;
+	}
+}
@@ -0,0 +1,112 @@
+package com.example;
+
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.contents.PlainTextContents;
+import net.minecraft.network.chat.contents.TranslatableContents;
+
+import java.util.List;
+
+final class TranslatableAnnouncementDetector {
+	private static final String JOINED_KEY = "multiplayer.player.joined";
+	private static final String JOINED_RENAMED_KEY = "multiplayer.player.joined.renamed";
+	private static final String LEFT_KEY = "multiplayer.player.left";
+	private static final int MAX_DEPTH = 8;
+	private static final int MAX_NAME_LENGTH = 16;
+
+	private TranslatableAnnouncementDetector() {
+	}
+
+	static Announcement detect(Component message) {
+		return detect(message, 0);
+	}
+
+	private static Announcement detect(Component component, int depth) {
+		if (depth > MAX_DEPTH) {
+			return null;
+		}
+		if (component.getContents() instanceof TranslatableContents translatable) {
+			Announcement announcement = fromTranslatable(translatable);
+			if (announcement != null) {
+				return announcement;
+			}
+		}
+
+		List<Component> siblings = component.getSiblings();
+		for (int i = 0; i < siblings.size(); i++) {
+			Announcement announcement = detect(siblings.get(i), depth + 1);
+			if (announcement != null) {
+				return announcement;
+			}
+		}
+		return null;
+	}
+
+	private static Announcement fromTranslatable(TranslatableContents translatable) {
+		String key = translatable.getKey();
+		boolean joining;
+		if (JOINED_KEY.equals(key) || JOINED_RENAMED_KEY.equals(key)) {
+			joining = true;
+		} else if (LEFT_KEY.equals(key)) {
+			joining = false;
+		} else {
+			return null;
+		}
+
+		Object[] args = translatable.getArgs();
+		if (args.length == 0) {
+			return null;
+		}
+		String playerName = readPlayerName(args[0]);
+		return playerName == null ? null : new Announcement(playerName, joining);
+	}
+
+	private static String readPlayerName(Object argument) {
+		if (argument instanceof String text) {
+			return isPlayerName(text) ? text : null;
+		}
+		if (!(argument instanceof Component component)) {
+			return null;
+		}
+		String flattened = component.getString();
+		if (isPlayerName(flattened)) {
+			return flattened;
+		}
+		// Team-decorated display names wrap the plain name in prefix/suffix siblings.
+		return findPlainName(component, 0);
+	}
+
+	private static String findPlainName(Component component, int depth) {
+		if (depth > MAX_DEPTH) {
+			return null;
+		}
+		if (component.getContents() instanceof PlainTextContents plain && isPlayerName(plain.text())) {
+			return plain.text();
+		}
+		List<Component> siblings = component.getSiblings();
+		for (int i = 0; i < siblings.size(); i++) {
+			String name = findPlainName(siblings.get(i), depth + 1);
+			if (name != null) {
+				return name;
+			}
+		}
+		return null;
+	}
+
+	private static boolean isPlayerName(String text) {
+		int length = text.length();
+		if (length == 0 || length > MAX_NAME_LENGTH) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			char c = text.charAt(i);
+			boolean valid = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_' || c == '.';
+			if (!valid) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	record Announcement(String playerName, boolean joining) {
+	}
+}
@@ -0,0 +1,106 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+final class Watchlist {
+	static final Watchlist EMPTY = compile(List.of());
+
+	private final Set<String> exactNames;
+	private final NameTrie<Boolean> prefixes;
+	private final char[][] wildcards;
+
+	private Watchlist(Set<String> exactNames, NameTrie<Boolean> prefixes, char[][] wildcards) {
+		this.exactNames = exactNames;
+		this.prefixes = prefixes;
+		this.wildcards = wildcards;
+	}
+
+	static Watchlist compile(List<String> rules) {
+		Set<String> exactNames = new HashSet<>();
+		NameTrie<Boolean> prefixes = new NameTrie<>();
+		List<char[]> wildcards = new ArrayList<>();
+		for (String rule : rules) {
+			String normalized = normalizeRule(rule);
+			if (normalized.isEmpty()) {
+				continue;
+			}
+			int firstWildcard = firstWildcard(normalized);
+			if (firstWildcard < 0) {
+				exactNames.add(normalized);
+			} else if (firstWildcard == normalized.length() - 1 && normalized.charAt(firstWildcard) == '*') {
+				prefixes.put(normalized.substring(0, firstWildcard), Boolean.TRUE);
+			} else {
+				wildcards.add(normalized.toCharArray());
+			}
+		}
+		return new Watchlist(Set.copyOf(exactNames), prefixes, wildcards.toArray(new char[0][]));
+	}
+
+	static List<String> parseRules(String rules) {
+		List<String> parsed = new ArrayList<>();
+		if (rules == null) {
+			return parsed;
+		}
+		for (String rule : rules.split(",")) {
+			String normalized = normalizeRule(rule);
+			if (!normalized.isEmpty() && !parsed.contains(normalized)) {
+				parsed.add(normalized);
+			}
+		}
+		return parsed;
+	}
+
+	static String normalizeRule(String rule) {
+		return rule == null ? "" : PlayerRoster.normalize(rule.trim());
+	}
+
+	boolean matches(String normalizedName) {
+		if (exactNames.contains(normalizedName) || prefixes.containsPrefixOf(normalizedName)) {
+			return true;
+		}
+		for (char[] wildcard : wildcards) {
+			if (globMatches(wildcard, normalizedName)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static int firstWildcard(String rule) {
+		for (int i = 0; i < rule.length(); i++) {
+			char c = rule.charAt(i);
+			if (c == '*' || c == '?') {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static boolean globMatches(char[] pattern, String text) {
+		int p = 0;
+		int t = 0;
+		int star = -1;
+		int starText = 0;
+		while (t < text.length()) {
+			if (p < pattern.length && (pattern[p] == '?' || pattern[p] == text.charAt(t))) {
+				p++;
+				t++;
+			} else if (p < pattern.length && pattern[p] == '*') {
+				star = p++;
+				starText = t;
+			} else if (star >= 0) {
+				p = star + 1;
+				t = ++starText;
+			} else {
+				return false;
+			}
+		}
+		while (p < pattern.length && pattern[p] == '*') {
+			p++;
+		}
+		return p == pattern.length;
+	}
+}
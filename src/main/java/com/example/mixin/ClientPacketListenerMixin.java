@@ -0,0 +1,25 @@
+package com.example.mixin;
+
+import com.example.RosterChangeSignal;
+import net.minecraft.client.multiplayer.ClientPacketListener;
+import net.minecraft.network.protocol.game.ClientboundPlayerInfoRemovePacket;
+import net.minecraft.network.protocol.game.ClientboundPlayerInfoUpdatePacket;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(ClientPacketListener.class)
+public abstract class ClientPacketListenerMixin {
+	@Inject(method = "handlePlayerInfoUpdate", at = @At("TAIL"))
+	private void joinmessages$onPlayerInfoUpdate(ClientboundPlayerInfoUpdatePacket packet, CallbackInfo ci) {
+		if (RosterChangeSignal.affectsRoster(packet.actions())) {
+			RosterChangeSignal.markChanged();
+		}
+	}
+
+	@Inject(method = "handlePlayerInfoRemove", at = @At("TAIL"))
+	private void joinmessages$onPlayerInfoRemove(ClientboundPlayerInfoRemovePacket packet, CallbackInfo ci) {
+		RosterChangeSignal.markChanged();
+	}
+}